@@ -0,0 +1,54 @@
+package com.skgdp.config;
+
+import com.skgdp.entity.Assessment;
+import com.skgdp.entity.KnowledgeGapState;
+import com.skgdp.entity.MCQAttempt;
+import com.skgdp.entity.PracticeQuestion;
+import com.skgdp.entity.Question;
+import com.skgdp.entity.Recommendation;
+import com.skgdp.entity.Topic;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on entities whose queries depend on them.
+ * Automatic index creation is off, so only the entities listed here get
+ * their annotated indexes ensured at startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer {
+
+  private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+      Assessment.class,
+      KnowledgeGapState.class,
+      MCQAttempt.class,
+      PracticeQuestion.class,
+      Question.class,
+      Recommendation.class,
+      Topic.class);
+
+  private final MongoTemplate mongoTemplate;
+  private final MongoMappingContext mappingContext;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void ensureIndexes() {
+    IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+    for (Class<?> entityClass : INDEXED_ENTITIES) {
+      IndexOperations indexOps = mongoTemplate.indexOps(entityClass);
+      resolver.resolveIndexFor(entityClass).forEach(indexOps::ensureIndex);
+      log.info("Ensured indexes for {}", entityClass.getSimpleName());
+    }
+  }
+}
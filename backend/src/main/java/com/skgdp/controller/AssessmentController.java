@@ -1,15 +1,34 @@
 package com.skgdp.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skgdp.dto.*;
 import com.skgdp.entity.Assessment;
+import com.skgdp.entity.Course;
+import com.skgdp.entity.KnowledgeGap;
+import com.skgdp.entity.Topic;
+import com.skgdp.entity.User;
 import com.skgdp.repository.AssessmentRepository;
+import com.skgdp.repository.KeysetPager;
+import com.skgdp.repository.ReferenceResolver;
+import com.skgdp.service.AssessmentWriteBehind;
+import com.skgdp.service.BulkAssessmentService;
+import com.skgdp.service.ExportWriter;
 import com.skgdp.service.GapDetectionService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -19,14 +38,86 @@ public class AssessmentController {
 
   private final GapDetectionService gapDetectionService;
   private final AssessmentRepository assessmentRepository;
+  private final AssessmentWriteBehind assessmentWriteBehind;
+  private final BulkAssessmentService bulkAssessmentService;
+  private final ObjectMapper objectMapper;
+  private final ReferenceResolver referenceResolver;
+  private final KeysetPager keysetPager;
+  private final ExportWriter exportWriter;
 
+  /**
+   * Every assessment, or one page of them, latest first, when paging or
+   * filter parameters are given.
+   */
   @GetMapping
-  public ResponseEntity<List<AssessmentAttemptDTO>> getAllAssessments() {
+  public ResponseEntity<?> getAllAssessments(
+      @RequestParam(required = false) String studentId,
+      @RequestParam(required = false) String courseId,
+      PageRequestDTO page) {
+    if (page.isRequested() || studentId != null || courseId != null) {
+      try {
+        List<Criteria> filters = new ArrayList<>();
+        if (studentId != null)
+          filters.add(ReferenceResolver.refersTo("student", studentId));
+        if (courseId != null)
+          filters.add(ReferenceResolver.refersTo("course", courseId));
+        PageDTO<Assessment> assessments = keysetPager.page(Assessment.class, filters, page,
+            "-submissionDate", Set.of("submissionDate"));
+        return ResponseEntity.ok(assessments.mapItems(this::toDTOs));
+      } catch (RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+      }
+    }
+
     List<Assessment> assessments = assessmentRepository.findAllByOrderBySubmissionDateDesc();
-    List<AssessmentAttemptDTO> dtos = assessments.stream()
-        .map(this::toDTO)
-        .collect(Collectors.toList());
-    return ResponseEntity.ok(dtos);
+    return ResponseEntity.ok(toDTOs(assessments));
+  }
+
+  /**
+   * Streams every matching assessment, latest first, as CSV or JSON.
+   */
+  @GetMapping("/export")
+  public ResponseEntity<?> exportAssessments(
+      @RequestParam(defaultValue = "csv") String format,
+      @RequestParam(required = false) String studentId,
+      @RequestParam(required = false) String courseId) {
+    Query query = new Query().with(Sort.by(Sort.Direction.DESC, "submissionDate", "id"));
+    if (studentId != null)
+      query.addCriteria(ReferenceResolver.refersTo("student", studentId));
+    if (courseId != null)
+      query.addCriteria(ReferenceResolver.refersTo("course", courseId));
+    try {
+      return exportWriter.export(format, "assessments", query, Assessment.class, this::toDTOs,
+          List.of("id", "studentId", "studentName", "courseId", "courseName", "courseCode", "score",
+              "submissionDate"),
+          a -> Arrays.asList(a.getId(), a.getStudentId(), a.getStudentName(), a.getCourseId(), a.getCourseName(),
+              a.getCourseCode(), a.getScore(), a.getSubmissionDate()));
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+  }
+
+  /**
+   * Streams the detected gap history, oldest first, as CSV or JSON.
+   */
+  @GetMapping("/export/gaps")
+  public ResponseEntity<?> exportGaps(
+      @RequestParam(defaultValue = "csv") String format,
+      @RequestParam(required = false) String studentId,
+      @RequestParam(required = false) String topicId) {
+    // Ids grow with insertion time, so _id order needs no sort index
+    Query query = new Query().with(Sort.by(Sort.Direction.ASC, "id"));
+    if (studentId != null)
+      query.addCriteria(ReferenceResolver.refersTo("student", studentId));
+    if (topicId != null)
+      query.addCriteria(ReferenceResolver.refersTo("topic", topicId));
+    try {
+      return exportWriter.export(format, "knowledge-gaps", query, KnowledgeGap.class, this::toGapDTOs,
+          List.of("id", "studentId", "topicId", "weaknessScore", "detectedAt"),
+          g -> Arrays.asList(g.getId(), g.getStudentId(), g.getTopicId(), g.getWeaknessScore(), g.getDetectedAt()));
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
   }
 
   @PostMapping("/submit")
@@ -39,20 +130,104 @@ public class AssessmentController {
     }
   }
 
+  /**
+   * Streaming submission: answers arrive as newline-delimited JSON objects
+   * and are scored as they are read, so the request body is never held in
+   * memory as a whole.
+   */
+  @PostMapping(value = "/submit-stream", consumes = "application/x-ndjson")
+  public ResponseEntity<?> submitAssessmentStream(
+      @RequestParam String courseId,
+      @RequestParam String studentId,
+      HttpServletRequest request) throws IOException {
+    try (MappingIterator<AssessmentSubmissionDTO.AnswerDTO> answers = objectMapper
+        .readerFor(AssessmentSubmissionDTO.AnswerDTO.class)
+        .readValues(request.getInputStream())) {
+      AssessmentResultDTO result = gapDetectionService.evaluateAssessment(courseId, studentId, answers);
+      return ResponseEntity.ok(result);
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+  }
+
+  /**
+   * Grades a whole batch of students for one course, e.g. an OMR import.
+   */
+  @PostMapping("/submit-bulk")
+  public ResponseEntity<?> submitBulk(@RequestBody BulkAssessmentSubmissionDTO request) {
+    try {
+      return ResponseEntity.ok(bulkAssessmentService.evaluateAll(request));
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+  }
+
+  @GetMapping("/write-behind/stats")
+  public ResponseEntity<Map<String, Object>> getWriteBehindStats() {
+    return ResponseEntity.ok(assessmentWriteBehind.getStats());
+  }
+
   @GetMapping("/gaps/{studentId}")
   public ResponseEntity<List<AssessmentResultDTO.GapDTO>> getStudentGaps(@PathVariable String studentId) {
     List<AssessmentResultDTO.GapDTO> gaps = gapDetectionService.getStudentGaps(studentId);
     return ResponseEntity.ok(gaps);
   }
 
+  @GetMapping("/gaps/{studentId}/history")
+  public ResponseEntity<List<AssessmentResultDTO.GapDTO>> getStudentGapHistory(@PathVariable String studentId) {
+    return ResponseEntity.ok(gapDetectionService.getStudentGapHistory(studentId));
+  }
+
+  /**
+   * Assessments carry the names they display; only those the backfill has not
+   * reached yet load their references, in one query per collection.
+   */
+  private List<AssessmentAttemptDTO> toDTOs(List<Assessment> assessments) {
+    fillMissingNames(assessments);
+    return assessments.stream()
+        .map(this::toDTO)
+        .collect(Collectors.toList());
+  }
+
+  private List<AssessmentResultDTO.GapDTO> toGapDTOs(List<KnowledgeGap> gaps) {
+    // Only ids are exported, so references are read without loading them
+    return gaps.stream()
+        .map(g -> AssessmentResultDTO.GapDTO.builder()
+            .id(g.getId())
+            .studentId(ReferenceResolver.idOf(g.getStudent(), User::getId))
+            .topicId(ReferenceResolver.idOf(g.getTopic(), Topic::getId))
+            .weaknessScore(g.getWeaknessScore() != null ? g.getWeaknessScore() : 0)
+            .detectedAt(g.getDetectedAt() != null ? g.getDetectedAt().toString() : null)
+            .build())
+        .collect(Collectors.toList());
+  }
+
+  private void fillMissingNames(List<Assessment> assessments) {
+    List<Assessment> unnamed = assessments.stream()
+        .filter(a -> a.getStudentName() == null || a.getCourseName() == null)
+        .collect(Collectors.toList());
+    if (unnamed.isEmpty())
+      return;
+    referenceResolver.resolve(unnamed, User.class, Assessment::getStudent, Assessment::setStudent);
+    referenceResolver.resolve(unnamed, Course.class, Assessment::getCourse, Assessment::setCourse);
+    for (Assessment assessment : unnamed) {
+      if (assessment.getStudent() != null)
+        assessment.setStudentName(assessment.getStudent().getFullName());
+      if (assessment.getCourse() != null) {
+        assessment.setCourseName(assessment.getCourse().getTitle());
+        assessment.setCourseCode(assessment.getCourse().getCode());
+      }
+    }
+  }
+
   private AssessmentAttemptDTO toDTO(Assessment assessment) {
     return AssessmentAttemptDTO.builder()
         .id(assessment.getId())
-        .studentId(assessment.getStudent() != null ? assessment.getStudent().getId() : null)
-        .studentName(assessment.getStudent() != null ? assessment.getStudent().getFullName() : "Unknown")
-        .courseId(assessment.getCourse() != null ? assessment.getCourse().getId() : null)
-        .courseName(assessment.getCourse() != null ? assessment.getCourse().getTitle() : "Unknown")
-        .courseCode(assessment.getCourse() != null ? assessment.getCourse().getCode() : "")
+        .studentId(ReferenceResolver.idOf(assessment.getStudent(), User::getId))
+        .studentName(assessment.getStudentName() != null ? assessment.getStudentName() : "Unknown")
+        .courseId(ReferenceResolver.idOf(assessment.getCourse(), Course::getId))
+        .courseName(assessment.getCourseName() != null ? assessment.getCourseName() : "Unknown")
+        .courseCode(assessment.getCourseCode() != null ? assessment.getCourseCode() : "")
         .score(assessment.getScore())
         .submissionDate(assessment.getSubmissionDate())
         .build();
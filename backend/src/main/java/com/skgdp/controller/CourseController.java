@@ -7,6 +7,8 @@ import com.skgdp.repository.CourseRepository;
 import com.skgdp.repository.UserRepository;
 import com.skgdp.repository.TopicRepository;
 import com.skgdp.repository.QuestionRepository;
+import com.skgdp.repository.ReferenceResolver;
+import com.skgdp.service.AnswerKeyCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,10 +26,14 @@ public class CourseController {
   private final UserRepository userRepo;
   private final TopicRepository topicRepo;
   private final QuestionRepository questionRepo;
+  private final AnswerKeyCache answerKeyCache;
+  private final ReferenceResolver referenceResolver;
 
   @GetMapping
   public ResponseEntity<List<CourseDTO>> getAllCourses() {
-    List<CourseDTO> courses = courseRepo.findAll().stream()
+    List<Course> all = courseRepo.findAll();
+    referenceResolver.resolve(all, User.class, Course::getFaculty, Course::setFaculty);
+    List<CourseDTO> courses = all.stream()
         .map(CourseDTO::fromEntity)
         .collect(Collectors.toList());
     return ResponseEntity.ok(courses);
@@ -70,6 +76,7 @@ public class CourseController {
             userRepo.findById(dto.getFacultyId()).ifPresent(course::setFaculty);
           }
           Course updated = courseRepo.save(course);
+          answerKeyCache.evictCourse(id);
           return ResponseEntity.ok(CourseDTO.fromEntity(updated));
         })
         .orElse(ResponseEntity.notFound().build());
@@ -88,6 +95,7 @@ public class CourseController {
     });
 
     courseRepo.deleteById(id);
+    answerKeyCache.evictCourse(id);
     return ResponseEntity.ok(Map.of("message", "Course deleted successfully"));
   }
 }
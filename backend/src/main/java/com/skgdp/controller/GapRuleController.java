@@ -0,0 +1,41 @@
+package com.skgdp.controller;
+
+import com.skgdp.dto.GapRuleDTO;
+import com.skgdp.service.GapRuleEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/gap-rules")
+@RequiredArgsConstructor
+public class GapRuleController {
+
+  private final GapRuleEngine gapRuleEngine;
+
+  @GetMapping
+  public ResponseEntity<List<GapRuleDTO>> getRules() {
+    return ResponseEntity.ok(gapRuleEngine.getRules());
+  }
+
+  // Create or replace the rule for a course or one of its topics
+  @PutMapping
+  public ResponseEntity<?> saveRule(@RequestBody GapRuleDTO dto) {
+    try {
+      return ResponseEntity.ok(gapRuleEngine.saveRule(dto));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @DeleteMapping("/{id}")
+  public ResponseEntity<?> deleteRule(@PathVariable String id) {
+    if (!gapRuleEngine.deleteRule(id)) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(Map.of("message", "Gap rule deleted successfully"));
+  }
+}
@@ -1,18 +1,32 @@
 package com.skgdp.controller;
 
 import com.skgdp.dto.MCQAttemptDTO;
+import com.skgdp.dto.PageDTO;
+import com.skgdp.dto.PageRequestDTO;
 import com.skgdp.entity.MCQAttempt;
 import com.skgdp.entity.Topic;
 import com.skgdp.entity.User;
+import com.skgdp.repository.KeysetPager;
 import com.skgdp.repository.MCQAttemptRepository;
+import com.skgdp.repository.ReferenceResolver;
 import com.skgdp.repository.TopicRepository;
 import com.skgdp.repository.UserRepository;
+import com.skgdp.service.ExportWriter;
+import com.skgdp.service.GapRuleEngine;
+import com.skgdp.service.KnowledgeGapStateService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,26 +38,79 @@ public class MCQAttemptController {
   private final MCQAttemptRepository mcqAttemptRepository;
   private final UserRepository userRepository;
   private final TopicRepository topicRepository;
+  private final KnowledgeGapStateService gapStateService;
+  private final GapRuleEngine gapRuleEngine;
+  private final ReferenceResolver referenceResolver;
+  private final KeysetPager keysetPager;
+  private final ExportWriter exportWriter;
 
+  /**
+   * Without paging or filter parameters this returns every attempt, as it
+   * always has. With any of them it returns one page, newest first unless
+   * {@code sort} says otherwise.
+   */
   @GetMapping
-  public ResponseEntity<List<MCQAttemptDTO>> getAllAttempts() {
+  public ResponseEntity<?> getAllAttempts(
+      @RequestParam(required = false) String studentId,
+      @RequestParam(required = false) String topicId,
+      PageRequestDTO page) {
+    if (page.isRequested() || studentId != null || topicId != null) {
+      try {
+        List<Criteria> filters = new ArrayList<>();
+        if (studentId != null)
+          filters.add(ReferenceResolver.refersTo("student", studentId));
+        if (topicId != null)
+          filters.add(ReferenceResolver.refersTo("topic", topicId));
+        PageDTO<MCQAttempt> attempts = keysetPager.page(MCQAttempt.class, filters, page,
+            "-attemptedAt", Set.of("attemptedAt"));
+        return ResponseEntity.ok(attempts.mapItems(this::toDTOs));
+      } catch (RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+      }
+    }
+
     List<MCQAttempt> attempts = mcqAttemptRepository.findAllByOrderByAttemptedAtDesc();
     System.out.println("Fetching all MCQ attempts, found: " + attempts.size());
-    List<MCQAttemptDTO> dtos = attempts.stream().map(this::toDTO).collect(Collectors.toList());
+    List<MCQAttemptDTO> dtos = toDTOs(attempts);
     System.out.println("Returning " + dtos.size() + " attempt DTOs");
     return ResponseEntity.ok(dtos);
   }
 
+  /**
+   * Streams every matching attempt, newest first, as CSV or JSON.
+   */
+  @GetMapping("/export")
+  public ResponseEntity<?> exportAttempts(
+      @RequestParam(defaultValue = "csv") String format,
+      @RequestParam(required = false) String studentId,
+      @RequestParam(required = false) String topicId) {
+    Query query = new Query().with(Sort.by(Sort.Direction.DESC, "attemptedAt", "id"));
+    if (studentId != null)
+      query.addCriteria(ReferenceResolver.refersTo("student", studentId));
+    if (topicId != null)
+      query.addCriteria(ReferenceResolver.refersTo("topic", topicId));
+    try {
+      return exportWriter.export(format, "mcq-attempts", query, MCQAttempt.class, this::toDTOs,
+          List.of("id", "studentId", "studentName", "topicId", "topicName", "totalQuestions",
+              "correctAnswers", "scorePercentage", "timeTakenSeconds", "attemptedAt"),
+          a -> Arrays.asList(a.getId(), a.getStudentId(), a.getStudentName(), a.getTopicId(), a.getTopicName(),
+              a.getTotalQuestions(), a.getCorrectAnswers(), a.getScorePercentage(), a.getTimeTakenSeconds(),
+              a.getAttemptedAt()));
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+  }
+
   @GetMapping("/student/{studentId}")
   public ResponseEntity<List<MCQAttemptDTO>> getAttemptsByStudent(@PathVariable String studentId) {
     List<MCQAttempt> attempts = mcqAttemptRepository.findByStudent_Id(studentId);
-    return ResponseEntity.ok(attempts.stream().map(this::toDTO).collect(Collectors.toList()));
+    return ResponseEntity.ok(toDTOs(attempts));
   }
 
   @GetMapping("/topic/{topicId}")
   public ResponseEntity<List<MCQAttemptDTO>> getAttemptsByTopic(@PathVariable String topicId) {
     List<MCQAttempt> attempts = mcqAttemptRepository.findByTopic_Id(topicId);
-    return ResponseEntity.ok(attempts.stream().map(this::toDTO).collect(Collectors.toList()));
+    return ResponseEntity.ok(toDTOs(attempts));
   }
 
   @PostMapping
@@ -62,6 +129,8 @@ public class MCQAttemptController {
     MCQAttempt attempt = MCQAttempt.builder()
         .student(student)
         .topic(topic)
+        .studentName(student.getFullName())
+        .topicName(topic.getName())
         .totalQuestions(attemptDTO.getTotalQuestions())
         .correctAnswers(attemptDTO.getCorrectAnswers())
         .scorePercentage(attemptDTO.getScorePercentage())
@@ -71,16 +140,45 @@ public class MCQAttemptController {
 
     MCQAttempt saved = mcqAttemptRepository.save(attempt);
     System.out.println("Saved attempt with ID: " + saved.getId());
+    if (saved.getScorePercentage() != null) {
+      String courseId = topic.getCourse() != null ? topic.getCourse().getId() : null;
+      double threshold = gapRuleEngine.current().forCourse(courseId).forTopic(topic.getId()).getThreshold();
+      gapStateService.record(new KnowledgeGapStateService.TopicObservation(
+          student.getId(), topic.getId(), courseId, saved.getScorePercentage(), threshold, saved.getAttemptedAt(),
+          saved.getId()));
+    }
     return ResponseEntity.ok(toDTO(saved));
   }
 
+  /**
+   * Attempts carry the names they display, so a list reads only this
+   * collection. Attempts the backfill has not reached yet load their
+   * references in one query per collection.
+   */
+  private List<MCQAttemptDTO> toDTOs(List<MCQAttempt> attempts) {
+    List<MCQAttempt> unnamed = attempts.stream()
+        .filter(a -> a.getStudentName() == null || a.getTopicName() == null)
+        .collect(Collectors.toList());
+    if (!unnamed.isEmpty()) {
+      referenceResolver.resolve(unnamed, User.class, MCQAttempt::getStudent, MCQAttempt::setStudent);
+      referenceResolver.resolve(unnamed, Topic.class, MCQAttempt::getTopic, MCQAttempt::setTopic);
+      for (MCQAttempt attempt : unnamed) {
+        if (attempt.getStudent() != null)
+          attempt.setStudentName(attempt.getStudent().getFullName());
+        if (attempt.getTopic() != null)
+          attempt.setTopicName(attempt.getTopic().getName());
+      }
+    }
+    return attempts.stream().map(this::toDTO).collect(Collectors.toList());
+  }
+
   private MCQAttemptDTO toDTO(MCQAttempt attempt) {
     return MCQAttemptDTO.builder()
         .id(attempt.getId())
-        .studentId(attempt.getStudent() != null ? attempt.getStudent().getId() : null)
-        .studentName(attempt.getStudent() != null ? attempt.getStudent().getFullName() : "Unknown")
-        .topicId(attempt.getTopic() != null ? attempt.getTopic().getId() : null)
-        .topicName(attempt.getTopic() != null ? attempt.getTopic().getName() : "Unknown")
+        .studentId(ReferenceResolver.idOf(attempt.getStudent(), User::getId))
+        .studentName(attempt.getStudentName() != null ? attempt.getStudentName() : "Unknown")
+        .topicId(ReferenceResolver.idOf(attempt.getTopic(), Topic::getId))
+        .topicName(attempt.getTopicName() != null ? attempt.getTopicName() : "Unknown")
         .totalQuestions(attempt.getTotalQuestions())
         .correctAnswers(attempt.getCorrectAnswers())
         .scorePercentage(attempt.getScorePercentage())
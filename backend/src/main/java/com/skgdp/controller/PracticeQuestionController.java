@@ -1,6 +1,8 @@
 package com.skgdp.controller;
 
+import com.skgdp.dto.PageRequestDTO;
 import com.skgdp.dto.PracticeQuestionDTO;
+import com.skgdp.dto.PracticeSearchResultDTO;
 import com.skgdp.service.PracticeQuestionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -18,12 +20,60 @@ public class PracticeQuestionController {
 
   private final PracticeQuestionService practiceQuestionService;
 
-  // GET all questions
+  // GET all questions, or one page of them when paging or filter parameters are given
   @GetMapping
-  public ResponseEntity<List<PracticeQuestionDTO>> getAllQuestions() {
+  public ResponseEntity<?> getAllQuestions(
+      @RequestParam(required = false) String topicId,
+      @RequestParam(required = false) String courseId,
+      @RequestParam(required = false) String difficulty,
+      @RequestParam(required = false) String type,
+      @RequestParam(required = false) String createdBy,
+      PageRequestDTO page) {
+    if (page.isRequested() || topicId != null || courseId != null || difficulty != null
+        || type != null || createdBy != null) {
+      try {
+        return ResponseEntity.ok(practiceQuestionService.getQuestionPage(
+            topicId, courseId, difficulty, type, createdBy, page));
+      } catch (RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+      }
+    }
     return ResponseEntity.ok(practiceQuestionService.getAllQuestions());
   }
 
+  // SEARCH questions by text, tags, difficulty, type and topic, with facet counts
+  @GetMapping("/search")
+  public ResponseEntity<PracticeSearchResultDTO> search(
+      @RequestParam(required = false) String q,
+      @RequestParam(required = false) List<String> tags,
+      @RequestParam(required = false) List<String> difficulty,
+      @RequestParam(required = false) List<String> type,
+      @RequestParam(required = false) List<String> topicId,
+      @RequestParam(defaultValue = "0") int offset,
+      @RequestParam(defaultValue = "50") int limit) {
+    return ResponseEntity.ok(practiceQuestionService.search(q, tags, difficulty, type, topicId, offset, limit));
+  }
+
+  // GET question counts per difficulty, type, topic, course and tag
+  @GetMapping("/facets")
+  public ResponseEntity<Map<String, Map<String, Integer>>> getFacets(
+      @RequestParam(required = false) String q,
+      @RequestParam(required = false) List<String> tags,
+      @RequestParam(required = false) List<String> difficulty,
+      @RequestParam(required = false) List<String> type,
+      @RequestParam(required = false) List<String> topicId,
+      @RequestParam(required = false) List<String> courseId) {
+    return ResponseEntity.ok(practiceQuestionService.getFacets(q, tags, difficulty, type, topicId, courseId));
+  }
+
+  // GET the next questions for a student, weighted by their knowledge gaps
+  @GetMapping("/next")
+  public ResponseEntity<?> getNextQuestions(
+      @RequestParam String studentId,
+      @RequestParam(defaultValue = "10") int count) {
+    return ResponseEntity.ok(practiceQuestionService.getNextQuestions(studentId, count));
+  }
+
   // GET question by ID
   @GetMapping("/{id}")
   public ResponseEntity<PracticeQuestionDTO> getQuestionById(@PathVariable String id) {
@@ -50,6 +100,12 @@ public class PracticeQuestionController {
     return ResponseEntity.ok(practiceQuestionService.getQuestionsByDifficulty(difficulty));
   }
 
+  // GET questions by type
+  @GetMapping("/type/{type}")
+  public ResponseEntity<List<PracticeQuestionDTO>> getQuestionsByType(@PathVariable String type) {
+    return ResponseEntity.ok(practiceQuestionService.getQuestionsByType(type));
+  }
+
   // GET questions by creator
   @GetMapping("/creator/{createdBy}")
   public ResponseEntity<List<PracticeQuestionDTO>> getQuestionsByCreator(@PathVariable String createdBy) {
@@ -1,16 +1,25 @@
 package com.skgdp.controller;
 
+import com.skgdp.dto.PageDTO;
+import com.skgdp.dto.PageRequestDTO;
 import com.skgdp.dto.QuestionDTO;
 import com.skgdp.entity.Question;
 import com.skgdp.entity.Topic;
+import com.skgdp.repository.KeysetPager;
 import com.skgdp.repository.QuestionRepository;
+import com.skgdp.repository.ReferenceResolver;
 import com.skgdp.repository.TopicRepository;
+import com.skgdp.service.AnswerKeyCache;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -20,10 +29,32 @@ public class QuestionController {
 
   private final QuestionRepository questionRepo;
   private final TopicRepository topicRepo;
+  private final AnswerKeyCache answerKeyCache;
+  private final ReferenceResolver referenceResolver;
+  private final KeysetPager keysetPager;
 
   @GetMapping
-  public ResponseEntity<List<QuestionDTO>> getAllQuestions() {
-    List<QuestionDTO> questions = questionRepo.findAll().stream()
+  public ResponseEntity<?> getAllQuestions(
+      @RequestParam(required = false) String topicId,
+      @RequestParam(required = false) String difficulty,
+      PageRequestDTO page) {
+    if (page.isRequested() || topicId != null || difficulty != null) {
+      try {
+        List<Criteria> filters = new ArrayList<>();
+        if (topicId != null)
+          filters.add(ReferenceResolver.refersTo("topic", topicId));
+        if (difficulty != null)
+          filters.add(Criteria.where("difficulty").is(Question.Difficulty.valueOf(difficulty.toUpperCase()).name()));
+        PageDTO<Question> questions = keysetPager.page(Question.class, filters, page, "id", Set.of());
+        return ResponseEntity.ok(questions.mapItems(items -> withTopics(items).stream()
+            .map(QuestionDTO::fromEntity)
+            .collect(Collectors.toList())));
+      } catch (RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+      }
+    }
+
+    List<QuestionDTO> questions = withTopics(questionRepo.findAll()).stream()
         .map(QuestionDTO::fromEntity)
         .collect(Collectors.toList());
     return ResponseEntity.ok(questions);
@@ -31,7 +62,7 @@ public class QuestionController {
 
   @GetMapping("/topic/{topicId}")
   public ResponseEntity<List<QuestionDTO>> getQuestionsByTopic(@PathVariable String topicId) {
-    List<QuestionDTO> questions = questionRepo.findByTopicId(topicId).stream()
+    List<QuestionDTO> questions = withTopics(questionRepo.findByTopicId(topicId)).stream()
         .map(QuestionDTO::forStudent) // Don't expose correct answers
         .collect(Collectors.toList());
     return ResponseEntity.ok(questions);
@@ -41,13 +72,19 @@ public class QuestionController {
   public ResponseEntity<List<QuestionDTO>> getQuestionsByCourse(
       @PathVariable String courseId,
       @RequestParam(required = false, defaultValue = "false") boolean includeAnswers) {
-    List<String> topicIds = questionRepo.findAll().stream()
-        .filter(q -> q.getTopic().getCourse().getId().equals(courseId))
-        .map(q -> q.getTopic().getId())
-        .distinct()
+    // Course ids are ObjectIds; anything else matches no topics
+    if (!ObjectId.isValid(courseId)) {
+      return ResponseEntity.ok(List.of());
+    }
+    // Topics of the course, then their questions, both through indexed refs
+    List<String> topicIds = topicRepo.findIdsByCourseId(courseId).stream()
+        .map(Topic::getId)
         .collect(Collectors.toList());
+    if (topicIds.isEmpty()) {
+      return ResponseEntity.ok(List.of());
+    }
 
-    List<QuestionDTO> questions = questionRepo.findByTopicIdIn(topicIds).stream()
+    List<QuestionDTO> questions = withTopics(questionRepo.findByTopicIdIn(topicIds)).stream()
         .map(includeAnswers ? QuestionDTO::fromEntity : QuestionDTO::forStudent)
         .collect(Collectors.toList());
     return ResponseEntity.ok(questions);
@@ -80,6 +117,7 @@ public class QuestionController {
           .build();
 
       question = questionRepo.save(question);
+      answerKeyCache.evictTopic(topic);
       return ResponseEntity.ok(QuestionDTO.fromEntity(question));
     } catch (RuntimeException e) {
       return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -106,6 +144,8 @@ public class QuestionController {
       question.setTopic(topic);
 
       question = questionRepo.save(question);
+      answerKeyCache.evictQuestion(id);
+      answerKeyCache.evictTopic(topic);
       return ResponseEntity.ok(QuestionDTO.fromEntity(question));
     } catch (RuntimeException e) {
       return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -120,9 +160,15 @@ public class QuestionController {
         return ResponseEntity.notFound().build();
       }
       questionRepo.deleteById(id);
+      answerKeyCache.evictQuestion(id);
       return ResponseEntity.ok(Map.of("message", "Question deleted successfully"));
     } catch (RuntimeException e) {
       return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
   }
+
+  private List<Question> withTopics(List<Question> questions) {
+    referenceResolver.resolve(questions, Topic.class, Question::getTopic, Question::setTopic);
+    return questions;
+  }
 }
@@ -1,20 +1,26 @@
 package com.skgdp.controller;
 
+import com.skgdp.dto.PdfImportJobDTO;
 import com.skgdp.dto.PracticeQuestionDTO;
+import com.skgdp.dto.QuestionImportResultDTO;
 import com.skgdp.entity.PracticeQuestion;
-import com.skgdp.entity.Question;
 import com.skgdp.entity.Topic;
+import com.skgdp.exception.ResourceConflictException;
+import com.skgdp.exception.ServiceBusyException;
 import com.skgdp.repository.PracticeQuestionRepository;
-import com.skgdp.repository.QuestionRepository;
 import com.skgdp.repository.TopicRepository;
+import com.skgdp.service.PdfImportJobService;
 import com.skgdp.service.PdfQuestionParserService;
+import com.skgdp.service.QuestionImportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -30,8 +36,9 @@ public class QuestionUploadController {
 
   private final PdfQuestionParserService pdfParserService;
   private final PracticeQuestionRepository practiceQuestionRepository;
-  private final QuestionRepository questionRepository;
   private final TopicRepository topicRepository;
+  private final QuestionImportService questionImportService;
+  private final PdfImportJobService importJobService;
 
   /**
    * Upload PDF and parse MCQ questions - returns preview without saving
@@ -43,12 +50,9 @@ public class QuestionUploadController {
       @RequestParam(value = "type", defaultValue = "MCQ") String type) {
 
     try {
-      if (file.isEmpty()) {
-        return ResponseEntity.badRequest().body(Map.of("error", "Please upload a PDF file"));
-      }
-
-      if (!file.getContentType().equals("application/pdf")) {
-        return ResponseEntity.badRequest().body(Map.of("error", "Only PDF files are supported"));
+      String invalid = validatePdf(file);
+      if (invalid != null) {
+        return ResponseEntity.badRequest().body(Map.of("error", invalid));
       }
 
       // Verify topic exists
@@ -83,6 +87,85 @@ public class QuestionUploadController {
     }
   }
 
+  /**
+   * Upload PDF and parse it in the background - returns the import job at once
+   */
+  @PostMapping("/jobs")
+  public ResponseEntity<?> startPdfImport(
+      @RequestParam("file") MultipartFile file,
+      @RequestParam("topicId") String topicId,
+      @RequestParam(value = "type", defaultValue = "MCQ") String type) {
+
+    try {
+      String invalid = validatePdf(file);
+      if (invalid != null) {
+        return ResponseEntity.badRequest().body(Map.of("error", invalid));
+      }
+
+      Topic topic = topicRepository.findById(topicId).orElse(null);
+      if (topic == null) {
+        return ResponseEntity.badRequest().body(Map.of("error", "Topic not found"));
+      }
+
+      return ResponseEntity.accepted().body(importJobService.submit(file, topic, type));
+
+    } catch (ServiceBusyException e) {
+      // The queue is full for now; the client should retry later
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+          .body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      log.error("Error starting PDF import: ", e);
+      return ResponseEntity.badRequest().body(Map.of("error", "Failed to start import: " + e.getMessage()));
+    }
+  }
+
+  /**
+   * Status and progress of a PDF import
+   */
+  @GetMapping("/jobs/{jobId}")
+  public ResponseEntity<?> getPdfImport(@PathVariable String jobId) {
+    return ResponseEntity.ok(importJobService.getJob(jobId));
+  }
+
+  /**
+   * Progress of a PDF import as server-sent events
+   */
+  @GetMapping(value = "/jobs/{jobId}/events", produces = "text/event-stream")
+  public SseEmitter streamPdfImport(@PathVariable String jobId) {
+    return importJobService.subscribe(jobId);
+  }
+
+  /**
+   * Parsed questions of a finished PDF import - same shape as the preview
+   */
+  @GetMapping("/jobs/{jobId}/result")
+  public ResponseEntity<?> getPdfImportResult(@PathVariable String jobId) {
+    PdfImportJobDTO job = importJobService.getJob(jobId);
+    List<PracticeQuestionDTO> questions;
+    try {
+      questions = importJobService.getResult(jobId);
+    } catch (ResourceConflictException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
+    return ResponseEntity.ok(Map.of(
+        "message", questions.isEmpty()
+            ? "No questions could be parsed from the PDF. Please ensure the format is correct."
+            : "Successfully parsed " + questions.size() + " questions",
+        "questions", questions,
+        "count", questions.size(),
+        "topicName", job.getTopicName()));
+  }
+
+  private static String validatePdf(MultipartFile file) {
+    if (file.isEmpty())
+      return "Please upload a PDF file";
+    if (!"application/pdf".equals(file.getContentType()))
+      return "Only PDF files are supported";
+    return null;
+  }
+
   /**
    * Save parsed questions to database
    */
@@ -92,66 +175,17 @@ public class QuestionUploadController {
       Topic topic = topicRepository.findById(request.getTopicId())
           .orElseThrow(() -> new RuntimeException("Topic not found"));
 
-      List<Question> savedQuestions = new ArrayList<>();
-
-      for (PracticeQuestionDTO dto : request.getQuestions()) {
-        // Parse options from problemStatement
-        String problemStatement = dto.getProblemStatement();
-        String content = dto.getTitle();
-        String optionA = "", optionB = "", optionC = "", optionD = "";
-
-        // Extract options from problemStatement
-        if (problemStatement != null) {
-          String[] lines = problemStatement.split("\\n");
-          for (String line : lines) {
-            line = line.trim();
-            if (line.matches("^[Aa][.)\\]]\\s*.*")) {
-              optionA = line.replaceFirst("^[Aa][.)\\]]\\s*", "").trim();
-            } else if (line.matches("^[Bb][.)\\]]\\s*.*")) {
-              optionB = line.replaceFirst("^[Bb][.)\\]]\\s*", "").trim();
-            } else if (line.matches("^[Cc][.)\\]]\\s*.*")) {
-              optionC = line.replaceFirst("^[Cc][.)\\]]\\s*", "").trim();
-            } else if (line.matches("^[Dd][.)\\]]\\s*.*")) {
-              optionD = line.replaceFirst("^[Dd][.)\\]]\\s*", "").trim();
-            }
-          }
-          // Get content from first non-option line if title is truncated
-          if (content.endsWith("...")) {
-            for (String line : lines) {
-              line = line.trim();
-              if (!line.isEmpty() && !line.matches("^[A-Da-d][.)\\]].*")) {
-                content = line;
-                break;
-              }
-            }
-          }
-        }
-
-        // Map difficulty
-        Question.Difficulty difficulty;
-        try {
-          difficulty = Question.Difficulty.valueOf(dto.getDifficulty().toUpperCase());
-        } catch (Exception e) {
-          difficulty = Question.Difficulty.MEDIUM;
-        }
-
-        Question question = Question.builder()
-            .topic(topic)
-            .content(content)
-            .optionA(optionA)
-            .optionB(optionB)
-            .optionC(optionC)
-            .optionD(optionD)
-            .correctOption(dto.getSolution() != null ? dto.getSolution().toUpperCase() : "A")
-            .difficulty(difficulty)
-            .build();
-
-        savedQuestions.add(questionRepository.save(question));
-      }
+      // Converted in one pass and inserted in bulk; questions that fail are
+      // reported without stopping the rest
+      QuestionImportResultDTO result = questionImportService.saveAll(topic, request.getQuestions());
 
+      String message = "Successfully saved " + result.getSaved() + " questions";
+      if (!result.getFailures().isEmpty())
+        message += ", " + result.getFailures().size() + " failed";
       return ResponseEntity.ok(Map.of(
-          "message", "Successfully saved " + savedQuestions.size() + " questions",
-          "count", savedQuestions.size()));
+          "message", message,
+          "count", result.getSaved(),
+          "failures", result.getFailures()));
 
     } catch (Exception e) {
       log.error("Error saving questions: ", e);
@@ -1,13 +1,23 @@
 package com.skgdp.controller;
 
+import com.skgdp.dto.AssessmentResultDTO;
+import com.skgdp.dto.PageDTO;
+import com.skgdp.dto.PageRequestDTO;
 import com.skgdp.entity.Recommendation;
+import com.skgdp.entity.Topic;
+import com.skgdp.repository.KeysetPager;
 import com.skgdp.repository.RecommendationRepository;
+import com.skgdp.repository.ReferenceResolver;
+import com.skgdp.service.RecommendationIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -16,23 +26,47 @@ import java.util.stream.Collectors;
 public class RecommendationController {
 
   private final RecommendationRepository recRepo;
+  private final RecommendationIndex recommendationIndex;
+  private final ReferenceResolver referenceResolver;
+  private final KeysetPager keysetPager;
 
   @GetMapping
-  public ResponseEntity<List<Map<String, Object>>> getAllRecommendations() {
-    List<Map<String, Object>> recs = recRepo.findAll().stream()
-        .map(this::toMap)
-        .collect(Collectors.toList());
-    return ResponseEntity.ok(recs);
+  public ResponseEntity<?> getAllRecommendations(
+      @RequestParam(required = false) String topicId,
+      @RequestParam(required = false) String type,
+      PageRequestDTO page) {
+    if (page.isRequested() || topicId != null || type != null) {
+      try {
+        List<Criteria> filters = new ArrayList<>();
+        if (topicId != null)
+          filters.add(ReferenceResolver.refersTo("topic", topicId));
+        if (type != null)
+          filters.add(Criteria.where("type").is(Recommendation.Type.valueOf(type.toUpperCase()).name()));
+        PageDTO<Recommendation> recs = keysetPager.page(Recommendation.class, filters, page, "id", Set.of());
+        return ResponseEntity.ok(recs.mapItems(this::toMaps));
+      } catch (RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+      }
+    }
+
+    return ResponseEntity.ok(toMaps(recRepo.findAll()));
   }
 
   @GetMapping("/topic/{topicId}")
   public ResponseEntity<List<Map<String, Object>>> getByTopic(@PathVariable String topicId) {
-    List<Map<String, Object>> recs = recRepo.findByTopicId(topicId).stream()
+    List<Map<String, Object>> recs = recommendationIndex.forTopic(topicId).stream()
         .map(this::toMap)
         .collect(Collectors.toList());
     return ResponseEntity.ok(recs);
   }
 
+  private List<Map<String, Object>> toMaps(List<Recommendation> recs) {
+    referenceResolver.resolve(recs, Topic.class, Recommendation::getTopic, Recommendation::setTopic);
+    return recs.stream()
+        .map(this::toMap)
+        .collect(Collectors.toList());
+  }
+
   private Map<String, Object> toMap(Recommendation r) {
     return Map.of(
         "id", r.getId(),
@@ -41,4 +75,13 @@ public class RecommendationController {
         "description", r.getDescription(),
         "type", r.getType().name());
   }
+
+  private Map<String, Object> toMap(AssessmentResultDTO.RecommendationDTO r) {
+    return Map.of(
+        "id", r.getId(),
+        "topicId", r.getTopicId(),
+        "url", r.getUrl(),
+        "description", r.getDescription(),
+        "type", r.getType());
+  }
 }
@@ -1,9 +1,12 @@
 package com.skgdp.controller;
 
 import com.skgdp.dto.TopicDTO;
+import com.skgdp.entity.Course;
 import com.skgdp.entity.Topic;
 import com.skgdp.repository.CourseRepository;
+import com.skgdp.repository.ReferenceResolver;
 import com.skgdp.repository.TopicRepository;
+import com.skgdp.service.AnswerKeyCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,10 +23,12 @@ public class TopicController {
 
   private final TopicRepository topicRepo;
   private final CourseRepository courseRepo;
+  private final AnswerKeyCache answerKeyCache;
+  private final ReferenceResolver referenceResolver;
 
   @GetMapping
   public ResponseEntity<List<TopicDTO>> getAllTopics() {
-    List<TopicDTO> topics = topicRepo.findAll().stream()
+    List<TopicDTO> topics = withCourses(topicRepo.findAll()).stream()
         .map(TopicDTO::fromEntity)
         .collect(Collectors.toList());
     return ResponseEntity.ok(topics);
@@ -31,7 +36,7 @@ public class TopicController {
 
   @GetMapping("/course/{courseId}")
   public ResponseEntity<List<TopicDTO>> getTopicsByCourse(@PathVariable String courseId) {
-    List<TopicDTO> topics = topicRepo.findByCourseId(courseId).stream()
+    List<TopicDTO> topics = withCourses(topicRepo.findByCourseId(courseId)).stream()
         .map(TopicDTO::fromEntity)
         .collect(Collectors.toList());
     return ResponseEntity.ok(topics);
@@ -54,8 +59,14 @@ public class TopicController {
               .course(course)
               .build();
           Topic saved = topicRepo.save(topic);
+          answerKeyCache.evictCourse(course.getId());
           return ResponseEntity.status(HttpStatus.CREATED).body(TopicDTO.fromEntity(saved));
         })
         .orElse(ResponseEntity.badRequest().build());
   }
+
+  private List<Topic> withCourses(List<Topic> topics) {
+    referenceResolver.resolve(topics, Course.class, Topic::getCourse, Topic::setCourse);
+    return topics;
+  }
 }
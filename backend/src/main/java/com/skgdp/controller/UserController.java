@@ -1,15 +1,21 @@
 package com.skgdp.controller;
 
+import com.skgdp.dto.PageDTO;
+import com.skgdp.dto.PageRequestDTO;
 import com.skgdp.dto.RegisterRequest;
 import com.skgdp.dto.UserDTO;
 import com.skgdp.entity.User;
+import com.skgdp.repository.KeysetPager;
 import com.skgdp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -18,9 +24,29 @@ import java.util.stream.Collectors;
 public class UserController {
 
   private final UserRepository userRepo;
+  private final KeysetPager keysetPager;
 
   @GetMapping
-  public ResponseEntity<List<UserDTO>> getAllUsers() {
+  public ResponseEntity<?> getAllUsers(
+      @RequestParam(required = false) String role,
+      @RequestParam(required = false) Boolean active,
+      PageRequestDTO page) {
+    if (page.isRequested() || role != null || active != null) {
+      try {
+        List<Criteria> filters = new ArrayList<>();
+        if (role != null)
+          filters.add(Criteria.where("role").is(User.Role.valueOf(role.toUpperCase()).name()));
+        if (active != null)
+          filters.add(Criteria.where("active").is(active));
+        PageDTO<User> users = keysetPager.page(User.class, filters, page, "id", Set.of());
+        return ResponseEntity.ok(users.mapItems(items -> items.stream()
+            .map(UserDTO::fromEntity)
+            .collect(Collectors.toList())));
+      } catch (RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+      }
+    }
+
     List<UserDTO> users = userRepo.findAll().stream()
         .map(UserDTO::fromEntity)
         .collect(Collectors.toList());
@@ -0,0 +1,25 @@
+package com.skgdp.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkAssessmentResultDTO {
+  private String courseId;
+  private int evaluated;
+  private int failed;
+  private List<StudentResult> results;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class StudentResult {
+    private String studentId;
+    private AssessmentResultDTO result;
+    private String error;
+  }
+}
@@ -0,0 +1,12 @@
+package com.skgdp.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAssessmentSubmissionDTO {
+  private String courseId;
+  private List<AssessmentSubmissionDTO> submissions;
+}
@@ -0,0 +1,32 @@
+package com.skgdp.dto;
+
+import com.skgdp.entity.GapRule;
+import lombok.*;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GapRuleDTO {
+  private String id;
+  private String courseId;
+  private String topicId;
+  private Double threshold;
+  private Integer minSamples;
+  private Map<String, Double> difficultyWeights;
+
+  public static GapRuleDTO fromEntity(GapRule rule) {
+    return GapRuleDTO.builder()
+        .id(rule.getId())
+        .courseId(rule.getCourseId())
+        .topicId(rule.getTopicId())
+        .threshold(rule.getThreshold())
+        .minSamples(rule.getMinSamples())
+        .difficultyWeights(rule.getDifficultyWeights() == null ? null
+            : rule.getDifficultyWeights().entrySet().stream()
+                .collect(Collectors.toMap(e -> e.getKey().name(), Map.Entry::getValue)))
+        .build();
+  }
+}
@@ -0,0 +1,20 @@
+package com.skgdp.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageDTO<T> {
+  private List<T> items;
+  // Null on the last page
+  private String nextCursor;
+
+  public <R> PageDTO<R> mapItems(Function<List<T>, List<R>> mapper) {
+    return new PageDTO<>(mapper.apply(items), nextCursor);
+  }
+}
@@ -0,0 +1,22 @@
+package com.skgdp.dto;
+
+import lombok.*;
+
+/**
+ * Optional keyset paging parameters of list endpoints. {@code sort} names a
+ * field, prefixed with {@code -} for descending order; {@code cursor} is the
+ * {@code nextCursor} of the previous page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageRequestDTO {
+  private Integer limit;
+  private String cursor;
+  private String sort;
+
+  public boolean isRequested() {
+    return limit != null || cursor != null || sort != null;
+  }
+}
@@ -0,0 +1,32 @@
+package com.skgdp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status and progress of a background PDF import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfImportJobDTO {
+
+  private String id;
+  private String status;
+  private String topicId;
+  private String topicName;
+  private String type;
+  private String fileName;
+  private Integer totalPages;
+  private Integer pagesDone;
+  private Integer questionsFound;
+  private String error;
+  private LocalDateTime createdAt;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+}
@@ -24,6 +24,9 @@ public class PracticeQuestionDTO {
   private String difficulty;
   private String type;
   private String problemStatement;
+  // MCQ options A to D as parsed, so saving an import need not re-parse the
+  // problem statement
+  private List<String> options;
   private List<String> hints;
   private String solution;
   private String solutionExplanation;
@@ -0,0 +1,33 @@
+package com.skgdp.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * List view of a practice question: everything the question bank shows, and
+ * none of the statement, hints, solution or test cases.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class PracticeQuestionSummaryDTO {
+  private String id;
+  private String title;
+  private String description;
+  private String topicId;
+  private String topicName;
+  private String courseId;
+  private String courseName;
+  private String difficulty;
+  private String type;
+  private List<String> tags;
+  private Integer timeLimit;
+  private Integer points;
+  private String createdBy;
+  private LocalDateTime createdAt;
+  private Boolean active;
+  private Integer attemptCount;
+  private Integer successCount;
+}
@@ -0,0 +1,17 @@
+package com.skgdp.dto;
+
+import lombok.*;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PracticeSearchResultDTO {
+  // Number of matching questions; items holds one window of them
+  private int total;
+  private List<PracticeQuestionSummaryDTO> items;
+  // Facet name (difficulty, type, topic, tag) -> value -> matching count
+  private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,23 @@
+package com.skgdp.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QuestionImportResultDTO {
+  private int saved;
+  private List<Failure> failures;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Failure {
+    // Position of the question in the submitted batch
+    private int index;
+    private String error;
+  }
+}
@@ -3,10 +3,14 @@ package com.skgdp.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import lombok.*;
 import java.time.LocalDateTime;
 
 @Document(collection = "assessments")
+@CompoundIndex(name = "student_ref", def = "{'student.$id': 1}")
+@CompoundIndex(name = "course_ref", def = "{'course.$id': 1}")
+@CompoundIndex(name = "submission_date", def = "{'submissionDate': -1, '_id': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,12 +19,19 @@ public class Assessment {
     @Id
     private String id;
 
-    @DBRef
+    @DBRef(lazy = true)
     private User student;
 
-    @DBRef
+    @DBRef(lazy = true)
     private Course course;
 
+    // Display copies of the referenced names, kept in sync by ReadModelReconciler
+    private String studentName;
+
+    private String courseName;
+
+    private String courseCode;
+
     private Double score;
 
     private LocalDateTime submissionDate;
@@ -15,13 +15,13 @@ public class Assignment {
     @Id
     private String id;
 
-    @DBRef
+    @DBRef(lazy = true)
     private Topic topic;
 
-    @DBRef
+    @DBRef(lazy = true)
     private User student;
 
-    @DBRef
+    @DBRef(lazy = true)
     private User assignedBy;
 
     private LocalDateTime assignedAt;
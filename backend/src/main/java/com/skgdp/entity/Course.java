@@ -22,6 +22,6 @@ public class Course {
     @Indexed(unique = true)
     private String code;
 
-    @DBRef
+    @DBRef(lazy = true)
     private User faculty;
 }
@@ -0,0 +1,34 @@
+package com.skgdp.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.*;
+import java.util.Map;
+
+/**
+ * Gap-detection rule for a course, or for a single topic of a course.
+ * Topic rules override course rules, which override the global default.
+ */
+@Document(collection = "gap_rules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GapRule {
+    @Id
+    private String id;
+
+    private String courseId;
+
+    // Null for a course-wide rule
+    private String topicId;
+
+    // Topics scoring below this percentage are gaps
+    private Double threshold;
+
+    // Fewer answers than this on a topic never produce a gap
+    private Integer minSamples;
+
+    // Weight of a question by difficulty; missing difficulties weigh 1
+    private Map<Question.Difficulty, Double> difficultyWeights;
+}
@@ -15,10 +15,10 @@ public class KnowledgeGap {
     @Id
     private String id;
 
-    @DBRef
+    @DBRef(lazy = true)
     private User student;
 
-    @DBRef
+    @DBRef(lazy = true)
     private Topic topic;
 
     private Double weaknessScore;
@@ -0,0 +1,50 @@
+package com.skgdp.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Current knowledge-gap state of one student on one topic, upserted on every
+ * assessment or MCQ attempt. The append-only {@link KnowledgeGap} rows remain
+ * the audit history.
+ */
+@Document(collection = "knowledge_gap_states")
+@CompoundIndex(name = "student_topic", def = "{'studentId': 1, 'topicId': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KnowledgeGapState {
+    @Id
+    private String id;
+
+    private String studentId;
+
+    private String topicId;
+
+    // Course of the topic, whose gap rules decide whether the state is a gap
+    private String courseId;
+
+    // Exponentially weighted moving average of the topic percentage
+    private Double weaknessScore;
+
+    private Double lastScore;
+
+    private Integer sampleCount;
+
+    // Threshold of the rule that applied at the last update
+    private Double threshold;
+
+    private LocalDateTime lastSeenAt;
+
+    // Assessment or attempt that produced the last update
+    private String lastSourceId;
+
+    // Sources of the most recent updates, oldest first, used to make replayed
+    // upserts idempotent
+    private List<String> recentSourceIds;
+}
@@ -3,10 +3,14 @@ package com.skgdp.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import lombok.*;
 import java.time.LocalDateTime;
 
 @Document(collection = "mcq_attempts")
+@CompoundIndex(name = "student_ref", def = "{'student.$id': 1}")
+@CompoundIndex(name = "topic_ref", def = "{'topic.$id': 1}")
+@CompoundIndex(name = "attempted_at", def = "{'attemptedAt': -1, '_id': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,12 +19,17 @@ public class MCQAttempt {
   @Id
   private String id;
 
-  @DBRef
+  @DBRef(lazy = true)
   private User student;
 
-  @DBRef
+  @DBRef(lazy = true)
   private Topic topic;
 
+  // Display copies of the referenced names, kept in sync by ReadModelReconciler
+  private String studentName;
+
+  private String topicName;
+
   private Integer totalQuestions;
 
   private Integer correctAnswers;
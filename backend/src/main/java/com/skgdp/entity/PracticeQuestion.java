@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -16,6 +17,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "practice_questions")
+@CompoundIndex(name = "topic_ref", def = "{'topic.$id': 1}")
+@CompoundIndex(name = "course_ref", def = "{'course.$id': 1}")
+@CompoundIndex(name = "created_at", def = "{'createdAt': -1, '_id': -1}")
 public class PracticeQuestion {
 
   @Id
@@ -25,10 +29,10 @@ public class PracticeQuestion {
 
   private String description;
 
-  @DBRef
+  @DBRef(lazy = true)
   private Topic topic;
 
-  @DBRef
+  @DBRef(lazy = true)
   private Course course;
 
   private DifficultyLevel difficulty;
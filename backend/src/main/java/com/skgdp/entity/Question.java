@@ -3,9 +3,11 @@ package com.skgdp.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import lombok.*;
 
 @Document(collection = "questions")
+@CompoundIndex(name = "topic_ref", def = "{'topic.$id': 1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,7 +30,7 @@ public class Question {
 
     private Difficulty difficulty;
 
-    @DBRef
+    @DBRef(lazy = true)
     private Topic topic;
 
     public enum Difficulty {
@@ -3,9 +3,11 @@ package com.skgdp.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import lombok.*;
 
 @Document(collection = "recommendations")
+@CompoundIndex(name = "topic_ref", def = "{'topic.$id': 1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +16,7 @@ public class Recommendation {
     @Id
     private String id;
 
-    @DBRef
+    @DBRef(lazy = true)
     private Topic topic;
 
     private String url;
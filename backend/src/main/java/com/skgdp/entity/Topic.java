@@ -3,9 +3,11 @@ package com.skgdp.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import lombok.*;
 
 @Document(collection = "topics")
+@CompoundIndex(name = "course_ref", def = "{'course.$id': 1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,6 +18,6 @@ public class Topic {
 
     private String name;
 
-    @DBRef
+    @DBRef(lazy = true)
     private Course course;
 }
@@ -1,5 +1,6 @@
 package com.skgdp.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -61,6 +62,34 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
   }
 
+  /**
+   * Handle requests refused while the server is at capacity
+   */
+  @ExceptionHandler(ServiceBusyException.class)
+  public ResponseEntity<ErrorResponse> handleServiceBusy(ServiceBusyException ex) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        "Service Unavailable",
+        ex.getMessage(),
+        LocalDateTime.now());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(error);
+  }
+
+  /**
+   * Handle requests that conflict with the current state of a resource
+   */
+  @ExceptionHandler(ResourceConflictException.class)
+  public ResponseEntity<ErrorResponse> handleResourceConflict(ResourceConflictException ex) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.CONFLICT.value(),
+        "Conflict",
+        ex.getMessage(),
+        LocalDateTime.now());
+    return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+  }
+
   /**
    * Handle validation errors
    */
@@ -0,0 +1,12 @@
+package com.skgdp.exception;
+
+/**
+ * Thrown when a resource exists but its current state does not allow the
+ * request, such as asking for the result of an unfinished job.
+ */
+public class ResourceConflictException extends RuntimeException {
+
+  public ResourceConflictException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,19 @@
+package com.skgdp.exception;
+
+/**
+ * Thrown when a request cannot be taken on right now because the server is
+ * at capacity. Clients may retry after the given number of seconds.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public ServiceBusyException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -0,0 +1,11 @@
+package com.skgdp.repository;
+
+import com.skgdp.entity.GapRule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface GapRuleRepository extends MongoRepository<GapRule, String> {
+    Optional<GapRule> findByCourseIdAndTopicId(String courseId, String topicId);
+}
@@ -0,0 +1,143 @@
+package com.skgdp.repository;
+
+import com.skgdp.dto.PageDTO;
+import com.skgdp.dto.PageRequestDTO;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keyset pagination over a collection.
+ *
+ * Pages are ordered by one sort field plus {@code _id} as a tie-breaker, and
+ * the cursor carries the sort value and id of the last document returned. The
+ * next page starts strictly after that key, so it costs an index seek however
+ * deep the client pages, and documents inserted meanwhile do not shift it.
+ * Documents missing the sort field come last in descending order and first
+ * in ascending order, as Mongo sorts them.
+ */
+@Component
+public class KeysetPager {
+
+  private static final String ID = "id";
+
+  private final MongoTemplate mongoTemplate;
+  private final int defaultLimit;
+  private final int maxLimit;
+
+  public KeysetPager(
+      MongoTemplate mongoTemplate,
+      @Value("${skgdp.pagination.default-limit:50}") int defaultLimit,
+      @Value("${skgdp.pagination.max-limit:500}") int maxLimit) {
+    this.mongoTemplate = mongoTemplate;
+    this.defaultLimit = defaultLimit;
+    this.maxLimit = maxLimit;
+  }
+
+  /**
+   * Reads one page of documents matching the filters.
+   *
+   * @param sortable properties the client may sort by; {@code id} is always allowed
+   */
+  public <T> PageDTO<T> page(Class<T> type, List<Criteria> filters, PageRequestDTO request,
+      String defaultSort, Set<String> sortable) {
+    String sort = request.getSort() != null ? request.getSort() : defaultSort;
+    boolean desc = sort.startsWith("-");
+    String property = desc ? sort.substring(1) : sort;
+    if (!property.equals(ID) && !sortable.contains(property))
+      throw new RuntimeException("Unsupported sort: " + sort);
+
+    MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+        .getRequiredPersistentEntity(type);
+    MongoPersistentProperty sortProperty = property.equals(ID) ? null
+        : entity.getRequiredPersistentProperty(property);
+    int limit = Math.max(1, Math.min(request.getLimit() != null ? request.getLimit() : defaultLimit, maxLimit));
+
+    Query query = new Query();
+    filters.forEach(query::addCriteria);
+    if (request.getCursor() != null)
+      query.addCriteria(after(decode(request.getCursor(), sort, sortProperty), sortProperty, desc));
+    Sort.Direction direction = desc ? Sort.Direction.DESC : Sort.Direction.ASC;
+    query.with(sortProperty == null ? Sort.by(direction, ID) : Sort.by(direction, property, ID));
+    query.limit(limit + 1);
+
+    List<T> docs = mongoTemplate.find(query, type);
+    String nextCursor = null;
+    if (docs.size() > limit) {
+      docs = docs.subList(0, limit);
+      T last = docs.get(limit - 1);
+      PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(last);
+      Object value = sortProperty != null ? accessor.getProperty(sortProperty) : null;
+      nextCursor = encode(sort, value, String.valueOf(entity.getIdentifierAccessor(last).getIdentifier()));
+    }
+    return new PageDTO<>(docs, nextCursor);
+  }
+
+  /**
+   * Documents after the cursor key in the requested order.
+   */
+  private static Criteria after(Key key, MongoPersistentProperty sortProperty, boolean desc) {
+    Criteria afterId = desc ? Criteria.where("_id").lt(key.id) : Criteria.where("_id").gt(key.id);
+    if (sortProperty == null)
+      return afterId;
+
+    String field = sortProperty.getFieldName();
+    if (key.value == null) {
+      // Missing values sort lowest: the rest of them, then (ascending) all others
+      Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(null), afterId);
+      return desc ? sameValue : new Criteria().orOperator(sameValue, Criteria.where(field).ne(null));
+    }
+    Criteria pastValue = desc ? Criteria.where(field).lt(key.value) : Criteria.where(field).gt(key.value);
+    Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(key.value), afterId);
+    return desc
+        ? new Criteria().orOperator(pastValue, sameValue, Criteria.where(field).is(null))
+        : new Criteria().orOperator(pastValue, sameValue);
+  }
+
+  private static String encode(String sort, Object value, String id) {
+    String text = sort + '\n' + (value == null ? "" : "=" + value) + '\n' + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Key decode(String cursor, String sort, MongoPersistentProperty sortProperty) {
+    String[] parts;
+    try {
+      parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", -1);
+    } catch (IllegalArgumentException e) {
+      throw new RuntimeException("Invalid cursor");
+    }
+    if (parts.length != 3 || !parts[0].equals(sort))
+      throw new RuntimeException("Invalid cursor");
+
+    Object id = ObjectId.isValid(parts[2]) ? new ObjectId(parts[2]) : parts[2];
+    if (sortProperty == null || parts[1].isEmpty())
+      return new Key(null, id);
+    return new Key(toValue(parts[1].substring(1), sortProperty.getType()), id);
+  }
+
+  private Object toValue(String text, Class<?> type) {
+    try {
+      Object value = type == LocalDateTime.class ? LocalDateTime.parse(text)
+          : mongoTemplate.getConverter().getConversionService().convert(text, type);
+      return mongoTemplate.getConverter().convertToMongoType(value);
+    } catch (RuntimeException e) {
+      throw new RuntimeException("Invalid cursor");
+    }
+  }
+
+  private record Key(Object value, Object id) {
+  }
+}
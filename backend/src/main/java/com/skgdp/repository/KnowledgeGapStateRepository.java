@@ -0,0 +1,11 @@
+package com.skgdp.repository;
+
+import com.skgdp.entity.KnowledgeGapState;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface KnowledgeGapStateRepository extends MongoRepository<KnowledgeGapState, String> {
+    List<KnowledgeGapState> findByStudentId(String studentId);
+}
@@ -0,0 +1,21 @@
+package com.skgdp.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Scoring-only view of a question: the fields needed to grade an answer,
+ * with the topic reference kept as a plain id instead of a resolved DBRef.
+ */
+@Getter
+@AllArgsConstructor
+public class QuestionKey {
+  private final String id;
+  private final String topicId;
+  private final String correctOption;
+  private final String difficulty;
+
+  public boolean isCorrect(String selectedOption) {
+    return correctOption != null && correctOption.equalsIgnoreCase(selectedOption);
+  }
+}
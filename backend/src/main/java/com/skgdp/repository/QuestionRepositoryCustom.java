@@ -0,0 +1,18 @@
+package com.skgdp.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface QuestionRepositoryCustom {
+
+  /**
+   * Loads the scoring fields of the given questions with a single $in query.
+   * The topic DBRef is read as an id and never resolved.
+   */
+  List<QuestionKey> findKeysByIdIn(Collection<String> ids);
+
+  /**
+   * Loads the scoring fields of every question under the given topics.
+   */
+  List<QuestionKey> findKeysByTopicIdIn(Collection<String> topicIds);
+}
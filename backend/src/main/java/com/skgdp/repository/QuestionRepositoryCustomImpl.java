@@ -0,0 +1,68 @@
+package com.skgdp.repository;
+
+import com.mongodb.DBRef;
+import com.skgdp.entity.Question;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class QuestionRepositoryCustomImpl implements QuestionRepositoryCustom {
+
+  private static final String[] KEY_FIELDS = { "correctOption", "difficulty", "topic" };
+
+  private final MongoTemplate mongoTemplate;
+
+  @Override
+  public List<QuestionKey> findKeysByIdIn(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+
+    return findKeys(new Query(Criteria.where("_id").in(toMongoIds(ids))));
+  }
+
+  @Override
+  public List<QuestionKey> findKeysByTopicIdIn(Collection<String> topicIds) {
+    if (topicIds.isEmpty()) {
+      return List.of();
+    }
+
+    return findKeys(new Query(Criteria.where("topic.$id").in(toMongoIds(topicIds))));
+  }
+
+  private List<QuestionKey> findKeys(Query query) {
+    query.fields().include(KEY_FIELDS);
+    List<Document> docs = mongoTemplate.find(query, Document.class,
+        mongoTemplate.getCollectionName(Question.class));
+    List<QuestionKey> keys = new ArrayList<>(docs.size());
+    for (Document doc : docs) {
+      keys.add(toKey(doc));
+    }
+    return keys;
+  }
+
+  private static List<Object> toMongoIds(Collection<String> ids) {
+    return ids.stream()
+        .map(id -> ObjectId.isValid(id) ? new ObjectId(id) : id)
+        .collect(Collectors.toList());
+  }
+
+  private static QuestionKey toKey(Document doc) {
+    Object topic = doc.get("topic");
+    String topicId = topic instanceof DBRef ref ? ref.getId().toString() : null;
+    return new QuestionKey(
+        doc.get("_id").toString(),
+        topicId,
+        doc.getString("correctOption"),
+        doc.getString("difficulty"));
+  }
+}
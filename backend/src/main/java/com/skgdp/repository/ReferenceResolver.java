@@ -0,0 +1,107 @@
+package com.skgdp.repository;
+
+import com.mongodb.DBRef;
+import org.bson.types.ObjectId;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Resolves lazy {@code @DBRef} references of a list of documents with one
+ * {@code $in} query per referenced collection instead of one query per
+ * document. Reading the id of an unresolved reference does not load it, so the
+ * ids are collected first and the loaded documents are stitched back in.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceResolver {
+
+  private final MongoTemplate mongoTemplate;
+
+  /**
+   * Replaces the unresolved {@code type} reference of every owner with the
+   * loaded document and returns the distinct referenced documents, so nested
+   * references can be resolved in turn. References to documents that no longer
+   * exist become {@code null}, as they would when resolved one by one.
+   */
+  public <T, R> List<R> resolve(Collection<T> owners, Class<R> type,
+      Function<T, R> getter, BiConsumer<T, R> setter) {
+    Map<T, Object> pending = new IdentityHashMap<>();
+    Map<Object, Object> ids = new LinkedHashMap<>();
+    Map<R, Boolean> loaded = new IdentityHashMap<>();
+
+    for (T owner : owners) {
+      R ref = getter.apply(owner);
+      if (ref == null)
+        continue;
+      Object id = unresolvedId(ref);
+      if (id != null) {
+        pending.put(owner, id);
+        ids.put(id.toString(), id);
+      } else {
+        loaded.put(ref, Boolean.TRUE);
+      }
+    }
+    if (pending.isEmpty())
+      return new ArrayList<>(loaded.keySet());
+
+    Map<String, R> byId = new HashMap<>();
+    Query query = new Query(Criteria.where("_id").in(ids.values()));
+    for (R doc : mongoTemplate.find(query, type)) {
+      Object id = mongoTemplate.getConverter().getMappingContext()
+          .getRequiredPersistentEntity(type).getIdentifierAccessor(doc).getIdentifier();
+      byId.put(String.valueOf(id), doc);
+    }
+
+    pending.forEach((owner, id) -> {
+      R doc = byId.get(id.toString());
+      setter.accept(owner, doc);
+      if (doc != null)
+        loaded.put(doc, Boolean.TRUE);
+    });
+    return new ArrayList<>(loaded.keySet());
+  }
+
+  /**
+   * Matches documents whose reference field points at the given id.
+   */
+  public static Criteria refersTo(String refField, String id) {
+    return Criteria.where(refField + ".$id").is(ObjectId.isValid(id) ? new ObjectId(id) : id);
+  }
+
+  /**
+   * Id of a referenced document, read from the DBRef when the reference has not
+   * been loaded so that it stays unloaded.
+   */
+  public static <R> String idOf(R ref, Function<R, String> idGetter) {
+    if (ref == null)
+      return null;
+    Object id = unresolvedId(ref);
+    return id != null ? id.toString() : idGetter.apply(ref);
+  }
+
+  /**
+   * Id behind a reference that has not been loaded yet, or {@code null} when
+   * the reference is already a plain document. Does not trigger loading.
+   */
+  public static Object unresolvedId(Object ref) {
+    if (ref instanceof LazyLoadingProxy proxy) {
+      DBRef dbRef = proxy.toDBRef();
+      return dbRef != null ? dbRef.getId() : null;
+    }
+    return null;
+  }
+}
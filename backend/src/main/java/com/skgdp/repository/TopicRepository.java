@@ -3,6 +3,7 @@ package com.skgdp.repository;
 import com.skgdp.entity.Topic;
 import com.skgdp.entity.Course;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -13,5 +14,10 @@ public interface TopicRepository extends MongoRepository<Topic, String> {
 
     List<Topic> findByCourseId(String courseId);
 
+    // Ids only, so the course DBRef of each topic is not resolved. Callers
+    // must pass a valid ObjectId, which $oid requires
+    @Query(value = "{ 'course.$id': { $oid: ?0 } }", fields = "{ '_id': 1 }")
+    List<Topic> findIdsByCourseId(String courseId);
+
     Optional<Topic> findByName(String name);
 }
@@ -0,0 +1,270 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.PracticeQuestionSummaryDTO;
+import com.skgdp.entity.KnowledgeGapState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the next practice questions for a student.
+ *
+ * Questions are pooled per topic and, within a topic, into bands of empirical
+ * difficulty (the smoothed success rate of all attempts). The pools do not
+ * depend on the student and are rebuilt only when the catalog changes or the
+ * refresh interval passes. For a request, each (topic, band) cell gets the
+ * topic's gap weight, spread over its bands by how close the band's success
+ * rate is to the rate targeted for the student. A student scoring p in a topic
+ * is targeted at questions a fraction 1 - p of all attempts solve: a
+ * struggling student mostly gets questions most people solve, a strong one
+ * questions few people solve. Cells are then sampled from a Fenwick tree,
+ * in O(log cells) per pick, and a question is drawn uniformly without
+ * replacement from the chosen cell. Per-request work therefore depends on the
+ * number of cells and picks, not on the size of the bank.
+ */
+@Service
+public class AdaptiveQuestionSelector {
+
+  static final int BANDS = 5;
+  private static final double BAND_SPREAD = 0.2;
+  // Weight of topics the student has no state for yet
+  private static final double UNSEEN_TOPIC_WEIGHT = 0.5;
+  private static final double MIN_TOPIC_WEIGHT = 0.1;
+
+  private final PracticeQuestionCatalog catalog;
+  private final KnowledgeGapStateService gapStateService;
+  private final long refreshMillis;
+
+  private volatile Pools pools;
+
+  public AdaptiveQuestionSelector(
+      PracticeQuestionCatalog catalog,
+      KnowledgeGapStateService gapStateService,
+      @Value("${skgdp.practice.selection.refresh-ms:60000}") long refreshMillis) {
+    this.catalog = catalog;
+    this.gapStateService = gapStateService;
+    this.refreshMillis = refreshMillis;
+  }
+
+  /**
+   * Up to {@code count} distinct questions, weakest topics most likely first.
+   */
+  public List<PracticeQuestionSummaryDTO> select(String studentId, int count) {
+    Pools current = currentPools();
+    Map<String, Double> scores = new HashMap<>();
+    for (KnowledgeGapState state : gapStateService.getStates(studentId)) {
+      if (state.getWeaknessScore() != null)
+        scores.put(state.getTopicId(), state.getWeaknessScore());
+    }
+
+    // One cell per (topic, band); cell weights sum to the topic weight
+    List<String[]> cells = new ArrayList<>();
+    List<Double> weights = new ArrayList<>();
+    for (TopicPool pool : current.topics) {
+      Double score = scores.get(pool.topicId);
+      double level = score != null ? clamp(score / 100, 0.05, 0.95) : 0.5;
+      double topicWeight = score != null ? Math.max(MIN_TOPIC_WEIGHT, 1 - level) : UNSEEN_TOPIC_WEIGHT;
+      double targetRate = 1 - level;
+
+      double[] match = new double[BANDS];
+      double norm = 0;
+      for (int b = 0; b < BANDS; b++) {
+        if (pool.bands[b].length == 0)
+          continue;
+        double distance = (b + 0.5) / BANDS - targetRate;
+        match[b] = Math.exp(-distance * distance / (2 * BAND_SPREAD * BAND_SPREAD)) * pool.bands[b].length;
+        norm += match[b];
+      }
+      for (int b = 0; b < BANDS; b++) {
+        if (match[b] > 0) {
+          cells.add(pool.bands[b]);
+          weights.add(topicWeight * match[b] / norm);
+        }
+      }
+    }
+
+    FenwickSampler sampler = new FenwickSampler(weights);
+    Random random = ThreadLocalRandom.current();
+    List<String> picked = new ArrayList<>(count);
+    List<CellDraw> draws = new ArrayList<>(cells.size());
+    for (int i = 0; i < cells.size(); i++) {
+      draws.add(null);
+    }
+    int remaining = cells.size();
+    while (picked.size() < count && remaining > 0) {
+      int cell = sampler.sample(random.nextDouble() * sampler.total());
+      CellDraw draw = draws.get(cell);
+      if (draw == null) {
+        draw = new CellDraw(cells.get(cell));
+        draws.set(cell, draw);
+      }
+      picked.add(draw.next(random));
+      if (draw.exhausted()) {
+        sampler.set(cell, 0);
+        remaining--;
+      }
+    }
+    return catalog.get(picked);
+  }
+
+  private Pools currentPools() {
+    Pools current = pools;
+    long version = catalog.getVersion();
+    if (current != null && current.version == version
+        && System.currentTimeMillis() - current.builtAt < refreshMillis)
+      return current;
+    synchronized (this) {
+      current = pools;
+      if (current == null || current.version != version
+          || System.currentTimeMillis() - current.builtAt >= refreshMillis) {
+        current = build(version);
+        pools = current;
+      }
+      return current;
+    }
+  }
+
+  private Pools build(long version) {
+    Map<String, List<List<String>>> byTopic = new LinkedHashMap<>();
+    for (PracticeQuestionSummaryDTO question : catalog.all()) {
+      if (question.getTopicId() == null)
+        continue;
+      List<List<String>> bands = byTopic.computeIfAbsent(question.getTopicId(), k -> {
+        List<List<String>> empty = new ArrayList<>(BANDS);
+        for (int b = 0; b < BANDS; b++) {
+          empty.add(new ArrayList<>());
+        }
+        return empty;
+      });
+      bands.get(band(question)).add(question.getId());
+    }
+
+    List<TopicPool> topics = new ArrayList<>(byTopic.size());
+    byTopic.forEach((topicId, bands) -> {
+      String[][] arrays = new String[BANDS][];
+      for (int b = 0; b < BANDS; b++) {
+        arrays[b] = bands.get(b).toArray(new String[0]);
+      }
+      topics.add(new TopicPool(topicId, arrays));
+    });
+    return new Pools(version, System.currentTimeMillis(), topics);
+  }
+
+  /**
+   * Difficulty band from the Laplace-smoothed success rate, so unattempted
+   * questions sit in the middle.
+   */
+  static int band(PracticeQuestionSummaryDTO question) {
+    int attempts = question.getAttemptCount() != null ? question.getAttemptCount() : 0;
+    int successes = question.getSuccessCount() != null ? question.getSuccessCount() : 0;
+    double rate = (successes + 1.0) / (attempts + 2.0);
+    return Math.min(BANDS - 1, (int) (clamp(rate, 0, 1) * BANDS));
+  }
+
+  private static double clamp(double value, double min, double max) {
+    return Math.max(min, Math.min(max, value));
+  }
+
+  private record Pools(long version, long builtAt, List<TopicPool> topics) {
+  }
+
+  private record TopicPool(String topicId, String[][] bands) {
+  }
+
+  /**
+   * Uniform draws without replacement from a shared array, via a virtual
+   * Fisher-Yates shuffle that records only the swapped positions.
+   */
+  static class CellDraw {
+    private final String[] ids;
+    private final Map<Integer, Integer> swapped = new HashMap<>();
+    private int taken;
+
+    CellDraw(String[] ids) {
+      this.ids = ids;
+    }
+
+    String next(Random random) {
+      int last = ids.length - 1 - taken;
+      int pick = random.nextInt(last + 1);
+      int index = swapped.getOrDefault(pick, pick);
+      swapped.put(pick, swapped.getOrDefault(last, last));
+      taken++;
+      return ids[index];
+    }
+
+    boolean exhausted() {
+      return taken == ids.length;
+    }
+  }
+
+  /**
+   * Fenwick tree of non-negative weights supporting point updates and
+   * sampling an index with probability proportional to its weight.
+   */
+  static class FenwickSampler {
+    private final double[] tree;
+    private final double[] weights;
+    private double total;
+
+    FenwickSampler(List<Double> initial) {
+      int n = initial.size();
+      tree = new double[n + 1];
+      weights = new double[n];
+      for (int i = 0; i < n; i++) {
+        weights[i] = initial.get(i);
+        total += weights[i];
+        tree[i + 1] += weights[i];
+        int parent = i + 1 + ((i + 1) & -(i + 1));
+        if (parent <= n)
+          tree[parent] += tree[i + 1];
+      }
+    }
+
+    double total() {
+      return total;
+    }
+
+    void set(int index, double weight) {
+      double delta = weight - weights[index];
+      weights[index] = weight;
+      total += delta;
+      for (int i = index + 1; i < tree.length; i += i & -i) {
+        tree[i] += delta;
+      }
+    }
+
+    /**
+     * Index whose cumulative weight range contains {@code target}, for
+     * {@code 0 <= target < total()}.
+     */
+    int sample(double target) {
+      int position = 0;
+      int step = Integer.highestOneBit(Math.max(1, tree.length - 1));
+      for (; step > 0; step >>= 1) {
+        int next = position + step;
+        if (next < tree.length && tree[next] <= target) {
+          position = next;
+          target -= tree[next];
+        }
+      }
+      // Rounding can land on a slot whose weight was set to zero
+      for (int i = position; i < weights.length; i++) {
+        if (weights[i] > 0)
+          return i;
+      }
+      for (int i = Math.min(position, weights.length) - 1; i >= 0; i--) {
+        if (weights[i] > 0)
+          return i;
+      }
+      throw new IllegalStateException("No positive weight to sample");
+    }
+  }
+}
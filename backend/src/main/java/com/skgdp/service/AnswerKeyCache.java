@@ -0,0 +1,87 @@
+package com.skgdp.service;
+
+import com.skgdp.entity.Course;
+import com.skgdp.entity.Topic;
+import com.skgdp.repository.CourseRepository;
+import com.skgdp.repository.QuestionKey;
+import com.skgdp.repository.QuestionRepository;
+import com.skgdp.repository.TopicRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-course cache of {@link CourseAnswerKey}s used to score submissions
+ * without reading questions from MongoDB.
+ *
+ * Keys are built lazily on first use and evicted whenever a question, topic
+ * or course they cover is changed. A key built concurrently with an eviction
+ * is discarded rather than cached, so a stale key is never kept.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnswerKeyCache {
+
+  private final CourseRepository courseRepo;
+  private final TopicRepository topicRepo;
+  private final QuestionRepository questionRepo;
+
+  private final Map<String, CourseAnswerKey> keys = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * Returns the answer key of a course, building it on a cache miss.
+   */
+  public CourseAnswerKey get(String courseId) {
+    // The map does not take null keys
+    if (courseId == null || courseId.isBlank())
+      throw new IllegalArgumentException("Course id is required");
+    CourseAnswerKey key = keys.get(courseId);
+    if (key != null)
+      return key;
+
+    long startGeneration = generation.get();
+    key = build(courseId);
+    keys.put(courseId, key);
+    if (generation.get() != startGeneration)
+      keys.remove(courseId, key);
+    return key;
+  }
+
+  public void evictCourse(String courseId) {
+    generation.incrementAndGet();
+    keys.remove(courseId);
+  }
+
+  /**
+   * Evicts the course the topic belongs to.
+   */
+  public void evictTopic(Topic topic) {
+    if (topic != null && topic.getCourse() != null)
+      evictCourse(topic.getCourse().getId());
+  }
+
+  /**
+   * Evicts every cached course that contains the question.
+   */
+  public void evictQuestion(String questionId) {
+    generation.incrementAndGet();
+    keys.values().removeIf(key -> key.contains(questionId));
+  }
+
+  private CourseAnswerKey build(String courseId) {
+    Course course = courseRepo.findById(courseId)
+        .orElseThrow(() -> new RuntimeException("Course not found"));
+    List<Topic> topics = topicRepo.findByCourseId(courseId);
+    List<String> topicIds = topics.stream()
+        .map(Topic::getId)
+        .collect(Collectors.toList());
+    List<QuestionKey> questionKeys = questionRepo.findKeysByTopicIdIn(topicIds);
+    return CourseAnswerKey.build(course, topics, questionKeys);
+  }
+}
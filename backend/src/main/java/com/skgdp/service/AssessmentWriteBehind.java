@@ -0,0 +1,212 @@
+package com.skgdp.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for assessment results.
+ *
+ * When enabled, evaluations are queued in a bounded buffer and persisted by a
+ * single background writer in batches, so the submit endpoint only pays for
+ * scoring. When the buffer is full the caller waits up to the offer timeout and
+ * then writes its own evaluation synchronously, which keeps memory bounded and
+ * slows producers down instead of dropping results. Failed batches are retried
+ * with backoff, and the buffer is drained before the application shuts down.
+ *
+ * When disabled, every evaluation is written synchronously on the caller.
+ */
+@Component
+@Slf4j
+public class AssessmentWriteBehind {
+
+  private final EvaluationWriter writer;
+  private final boolean enabled;
+  private final int batchSize;
+  private final long offerTimeoutMillis;
+  private final long flushIntervalMillis;
+  private final int maxRetries;
+  private final BlockingQueue<EvaluationWriter.Evaluation> queue;
+
+  private final AtomicLong writtenCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+  private final AtomicLong callerRunsCount = new AtomicLong();
+  private final AtomicLong flushCount = new AtomicLong();
+  private final AtomicLong totalFlushNanos = new AtomicLong();
+  private final AtomicLong maxFlushNanos = new AtomicLong();
+  private volatile long lastFlushNanos;
+
+  private volatile boolean running;
+  // Submits enqueue under the read lock and shutdown clears running under the
+  // write lock, so nothing is enqueued after the final drain
+  private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+  private Thread worker;
+
+  public AssessmentWriteBehind(
+      EvaluationWriter writer,
+      @Value("${skgdp.assessment.write-behind.enabled:false}") boolean enabled,
+      @Value("${skgdp.assessment.write-behind.capacity:10000}") int capacity,
+      @Value("${skgdp.assessment.write-behind.batch-size:500}") int batchSize,
+      @Value("${skgdp.assessment.write-behind.offer-timeout-ms:50}") long offerTimeoutMillis,
+      @Value("${skgdp.assessment.write-behind.flush-interval-ms:100}") long flushIntervalMillis,
+      @Value("${skgdp.assessment.write-behind.max-retries:3}") int maxRetries) {
+    this.writer = writer;
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.offerTimeoutMillis = offerTimeoutMillis;
+    this.flushIntervalMillis = flushIntervalMillis;
+    this.maxRetries = maxRetries;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!enabled)
+      return;
+    running = true;
+    worker = new Thread(this::runWorker, "assessment-write-behind");
+    worker.setDaemon(true);
+    worker.start();
+    log.info("Assessment write-behind enabled (capacity={}, batchSize={})",
+        queue.remainingCapacity(), batchSize);
+  }
+
+  /**
+   * Persists an evaluation, either through the buffer or directly when
+   * write-behind is disabled or the buffer stays full past the offer timeout.
+   * Document ids are assigned before this returns.
+   */
+  public void submit(EvaluationWriter.Evaluation evaluation) {
+    writer.assignIds(evaluation);
+    if (enabled) {
+      runningLock.readLock().lock();
+      try {
+        if (running) {
+          if (queue.offer(evaluation, offerTimeoutMillis, TimeUnit.MILLISECONDS))
+            return;
+          callerRunsCount.incrementAndGet();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        callerRunsCount.incrementAndGet();
+      } finally {
+        runningLock.readLock().unlock();
+      }
+    }
+    writer.writeAll(List.of(evaluation));
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public Map<String, Object> getStats() {
+    long flushes = flushCount.get();
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("enabled", enabled);
+    stats.put("queueDepth", queue.size());
+    stats.put("remainingCapacity", queue.remainingCapacity());
+    stats.put("written", writtenCount.get());
+    stats.put("failed", failedCount.get());
+    stats.put("callerRuns", callerRunsCount.get());
+    stats.put("flushes", flushes);
+    stats.put("lastFlushMillis", lastFlushNanos / 1_000_000.0);
+    stats.put("avgFlushMillis", flushes == 0 ? 0.0 : totalFlushNanos.get() / 1_000_000.0 / flushes);
+    stats.put("maxFlushMillis", maxFlushNanos.get() / 1_000_000.0);
+    return stats;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (!enabled)
+      return;
+    // Waits at most one offer timeout for submits already enqueueing
+    runningLock.writeLock().lock();
+    try {
+      running = false;
+    } finally {
+      runningLock.writeLock().unlock();
+    }
+    if (worker != null) {
+      // The worker notices the flag within one poll interval and drains the buffer
+      try {
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    // Anything the worker could not drain in time is written here
+    List<EvaluationWriter.Evaluation> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    if (!remaining.isEmpty()) {
+      log.info("Draining {} pending evaluations on shutdown", remaining.size());
+      flush(remaining);
+    }
+  }
+
+  private void runWorker() {
+    List<EvaluationWriter.Evaluation> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        EvaluationWriter.Evaluation first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (first == null)
+          continue;
+        batch.add(first);
+      } catch (InterruptedException e) {
+        // Leave whatever is still buffered to the shutdown hook
+        Thread.currentThread().interrupt();
+        return;
+      }
+      queue.drainTo(batch, batchSize - batch.size());
+      if (!batch.isEmpty()) {
+        flush(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private void flush(List<EvaluationWriter.Evaluation> batch) {
+    long start = System.nanoTime();
+    for (int attempt = 1;; attempt++) {
+      try {
+        writer.writeAll(batch);
+        writtenCount.addAndGet(batch.size());
+        break;
+      } catch (RuntimeException e) {
+        if (attempt > maxRetries) {
+          failedCount.addAndGet(batch.size());
+          log.error("Dropping {} evaluations after {} failed write attempts", batch.size(), attempt, e);
+          break;
+        }
+        log.warn("Write-behind flush failed (attempt {}), retrying", attempt, e);
+        sleepQuietly(100L << Math.min(attempt, 6));
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    lastFlushNanos = elapsed;
+    flushCount.incrementAndGet();
+    totalFlushNanos.addAndGet(elapsed);
+    maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+  }
+
+  private static void sleepQuietly(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
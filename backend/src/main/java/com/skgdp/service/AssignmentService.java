@@ -5,6 +5,7 @@ import com.skgdp.entity.Assignment;
 import com.skgdp.entity.Topic;
 import com.skgdp.entity.User;
 import com.skgdp.repository.AssignmentRepository;
+import com.skgdp.repository.ReferenceResolver;
 import com.skgdp.repository.TopicRepository;
 import com.skgdp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +23,7 @@ public class AssignmentService {
     private final AssignmentRepository assignmentRepo;
     private final TopicRepository topicRepo;
     private final UserRepository userRepo;
+    private final ReferenceResolver referenceResolver;
 
     @Transactional
     public List<AssignmentDTO> assignTest(String topicId, List<String> studentIds, String facultyId) {
@@ -54,15 +56,11 @@ public class AssignmentService {
     }
 
     public List<AssignmentDTO> getStudentAssignments(String studentId) {
-        return assignmentRepo.findByStudentId(studentId).stream()
-                .map(AssignmentDTO::fromEntity)
-                .collect(Collectors.toList());
+        return toDTOs(assignmentRepo.findByStudentId(studentId));
     }
 
     public List<AssignmentDTO> getPendingAssignments(String studentId) {
-        return assignmentRepo.findByStudentIdAndStatus(studentId, Assignment.Status.PENDING).stream()
-                .map(AssignmentDTO::fromEntity)
-                .collect(Collectors.toList());
+        return toDTOs(assignmentRepo.findByStudentIdAndStatus(studentId, Assignment.Status.PENDING));
     }
 
     @Transactional
@@ -78,11 +76,23 @@ public class AssignmentService {
 
     @Transactional
     public void completeByTopicAndStudent(String topicId, String studentId) {
-        List<Assignment> assignments = assignmentRepo.findByStudentId(studentId).stream()
-                .filter(a -> a.getTopic().getId().equals(topicId) && a.getStatus() == Assignment.Status.PENDING)
+        List<Assignment> pending = assignmentRepo.findByStudentIdAndStatus(studentId, Assignment.Status.PENDING);
+        referenceResolver.resolve(pending, Topic.class, Assignment::getTopic, Assignment::setTopic);
+        List<Assignment> assignments = pending.stream()
+                .filter(a -> a.getTopic() != null && a.getTopic().getId().equals(topicId))
                 .collect(Collectors.toList());
 
         assignments.forEach(a -> a.setStatus(Assignment.Status.COMPLETED));
         assignmentRepo.saveAll(assignments);
     }
+
+    private List<AssignmentDTO> toDTOs(List<Assignment> assignments) {
+        // One query per referenced collection instead of three per assignment
+        referenceResolver.resolve(assignments, Topic.class, Assignment::getTopic, Assignment::setTopic);
+        referenceResolver.resolve(assignments, User.class, Assignment::getStudent, Assignment::setStudent);
+        referenceResolver.resolve(assignments, User.class, Assignment::getAssignedBy, Assignment::setAssignedBy);
+        return assignments.stream()
+                .map(AssignmentDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,222 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.AssessmentSubmissionDTO;
+import com.skgdp.dto.BulkAssessmentResultDTO;
+import com.skgdp.dto.BulkAssessmentSubmissionDTO;
+import com.skgdp.entity.User;
+import com.skgdp.repository.QuestionKey;
+import com.skgdp.repository.QuestionRepository;
+import com.skgdp.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Grades many students' submissions for one course in a single request, as
+ * used for OMR imports of paper exams.
+ *
+ * The course's answer key and the students are loaded once for the whole
+ * batch, and recommendations come from the in-memory index. Submissions are scored
+ * in parallel on a bounded pool, at most two per worker in flight for each
+ * request, and the resulting documents are persisted with bulk writes in
+ * chunks.
+ */
+@Service
+@Slf4j
+public class BulkAssessmentService {
+
+  private static final int WRITE_CHUNK = 500;
+
+  private final GapDetectionService gapDetectionService;
+  private final AnswerKeyCache answerKeyCache;
+  private final UserRepository userRepo;
+  private final QuestionRepository questionRepo;
+  private final EvaluationWriter evaluationWriter;
+  private final int threads;
+  private final ExecutorService executor;
+
+  public BulkAssessmentService(
+      GapDetectionService gapDetectionService,
+      AnswerKeyCache answerKeyCache,
+      UserRepository userRepo,
+      QuestionRepository questionRepo,
+      EvaluationWriter evaluationWriter,
+      @Value("${skgdp.assessment.bulk.parallelism:0}") int parallelism) {
+    this.gapDetectionService = gapDetectionService;
+    this.answerKeyCache = answerKeyCache;
+    this.userRepo = userRepo;
+    this.questionRepo = questionRepo;
+    this.evaluationWriter = evaluationWriter;
+
+    this.threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), r -> {
+          Thread thread = new Thread(r, "bulk-assessment-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  public BulkAssessmentResultDTO evaluateAll(BulkAssessmentSubmissionDTO request) {
+    if (request.getSubmissions() == null || request.getSubmissions().isEmpty())
+      throw new IllegalArgumentException("No submissions provided");
+
+    String courseId = request.getCourseId();
+    CourseAnswerKey answerKey = answerKeyCache.get(courseId);
+
+    // One query for all students
+    List<String> studentIds = request.getSubmissions().stream()
+        .map(AssessmentSubmissionDTO::getStudentId)
+        .filter(Objects::nonNull)
+        .distinct()
+        .collect(Collectors.toList());
+    Map<String, User> students = userRepo.findAllById(studentIds).stream()
+        .collect(Collectors.toMap(User::getId, u -> u));
+
+    // Score every submission against the course key in parallel, keeping
+    // only a window of submissions queued so concurrent imports share the pool
+    List<ScoredBoard> boards = new ArrayList<>(request.getSubmissions().size());
+    Iterator<AssessmentSubmissionDTO> pending = request.getSubmissions().iterator();
+    Deque<Future<ScoredBoard>> inFlight = new ArrayDeque<>();
+    try {
+      while (pending.hasNext() || !inFlight.isEmpty()) {
+        while (pending.hasNext() && inFlight.size() < threads * 2) {
+          AssessmentSubmissionDTO submission = pending.next();
+          inFlight.add(executor.submit(() -> scoreBoard(courseId, answerKey, students, submission)));
+        }
+        boards.add(await(inFlight.poll()));
+      }
+    } finally {
+      // Left over only when a submission failed
+      inFlight.forEach(future -> future.cancel(true));
+    }
+
+    // Answers to questions outside the course are resolved with one query
+    resolveOutsideCourse(boards);
+
+    List<BulkAssessmentResultDTO.StudentResult> results = new ArrayList<>(boards.size());
+    List<EvaluationWriter.Evaluation> evaluations = new ArrayList<>(boards.size());
+    for (ScoredBoard board : boards) {
+      if (board.error != null) {
+        results.add(BulkAssessmentResultDTO.StudentResult.builder()
+            .studentId(board.studentId)
+            .error(board.error)
+            .build());
+        continue;
+      }
+      GapDetectionService.ScoredSubmission scored = gapDetectionService.score(
+          board.student, answerKey, board.scoreboard);
+      evaluations.add(scored.getEvaluation());
+      results.add(BulkAssessmentResultDTO.StudentResult.builder()
+          .studentId(board.studentId)
+          .result(scored.getResult())
+          .build());
+    }
+
+    for (int from = 0; from < evaluations.size(); from += WRITE_CHUNK) {
+      evaluationWriter.writeAll(evaluations.subList(from, Math.min(from + WRITE_CHUNK, evaluations.size())));
+    }
+
+    return BulkAssessmentResultDTO.builder()
+        .courseId(courseId)
+        .evaluated(evaluations.size())
+        .failed(results.size() - evaluations.size())
+        .results(results)
+        .build();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private static ScoredBoard scoreBoard(String courseId, CourseAnswerKey answerKey, Map<String, User> students,
+      AssessmentSubmissionDTO submission) {
+    ScoredBoard board = new ScoredBoard(submission.getStudentId());
+    if (submission.getCourseId() != null && !submission.getCourseId().equals(courseId)) {
+      board.error = "Submission is for a different course";
+      return board;
+    }
+    board.student = students.get(submission.getStudentId());
+    if (board.student == null) {
+      board.error = "Student not found";
+      return board;
+    }
+    if (submission.getAnswers() == null || submission.getAnswers().isEmpty()) {
+      board.error = "No answers submitted";
+      return board;
+    }
+
+    board.scoreboard = new TopicScoreboard(answerKey);
+    for (AssessmentSubmissionDTO.AnswerDTO ans : submission.getAnswers()) {
+      if (!board.scoreboard.record(ans.getQuestionId(), ans.getSelectedOption()))
+        board.outsideCourse.add(ans);
+    }
+    return board;
+  }
+
+  private void resolveOutsideCourse(List<ScoredBoard> boards) {
+    List<String> questionIds = boards.stream()
+        .flatMap(b -> b.outsideCourse.stream())
+        .map(AssessmentSubmissionDTO.AnswerDTO::getQuestionId)
+        .filter(Objects::nonNull)
+        .distinct()
+        .collect(Collectors.toList());
+    if (questionIds.isEmpty())
+      return;
+
+    Map<String, QuestionKey> keys = questionRepo.findKeysByIdIn(questionIds).stream()
+        .collect(Collectors.toMap(QuestionKey::getId, k -> k));
+    for (ScoredBoard board : boards) {
+      int correct = 0;
+      for (AssessmentSubmissionDTO.AnswerDTO ans : board.outsideCourse) {
+        QuestionKey key = keys.get(ans.getQuestionId());
+        if (key != null && key.isCorrect(ans.getSelectedOption()))
+          correct++;
+      }
+      if (board.scoreboard != null)
+        board.scoreboard.addCorrect(correct);
+    }
+  }
+
+  private static ScoredBoard await(Future<ScoredBoard> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Bulk evaluation interrupted", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Bulk evaluation failed: " + e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  private static class ScoredBoard {
+    private final String studentId;
+    private final List<AssessmentSubmissionDTO.AnswerDTO> outsideCourse = new ArrayList<>();
+    private User student;
+    private TopicScoreboard scoreboard;
+    private String error;
+
+    private ScoredBoard(String studentId) {
+      this.studentId = studentId;
+    }
+  }
+}
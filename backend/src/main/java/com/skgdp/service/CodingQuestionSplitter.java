@@ -0,0 +1,115 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.PracticeQuestionDTO;
+
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits plain-text problems (coding and other non-MCQ questions) out of text
+ * fed in chunks of any size.
+ *
+ * A problem starts at every "Problem n", "Question n" or "Q n" marker followed
+ * by ".", ":" or whitespace, and runs up to the next one. Only the problem
+ * being read is buffered, and each is handed to the sink once the next marker
+ * arrives. Blocks shorter than 20 characters are dropped.
+ */
+class CodingQuestionSplitter {
+
+  private static final Pattern BOUNDARY = Pattern.compile("(?:Problem|Question|Q)\\s*\\d+[.:\\s]");
+  private static final Pattern MARKER = Pattern.compile("^(?:Problem|Question|Q)\\s*\\d+[.:\\s]*");
+  // Longest marker word, the most a partial marker can reach back before
+  // its number
+  private static final int MARKER_WORD = "Question".length();
+  private static final int MIN_LENGTH = 20;
+  private static final int TITLE_LENGTH = 50;
+
+  private final String topicId;
+  private final Consumer<PracticeQuestionDTO> sink;
+
+  // Current block, which starts at a marker once the first one was seen
+  private final StringBuilder block = new StringBuilder();
+  // Where the next marker can start; earlier positions were already searched
+  private int scanFrom;
+
+  private int emitted;
+
+  CodingQuestionSplitter(String topicId, Consumer<PracticeQuestionDTO> sink) {
+    this.topicId = topicId;
+    this.sink = sink;
+  }
+
+  /**
+   * Consumes a chunk of text. A marker split across chunks is recognised once
+   * the rest of it arrives.
+   */
+  void feed(CharSequence text) {
+    block.append(text);
+    Matcher matcher = BOUNDARY.matcher(block);
+    while (matcher.region(scanFrom, block.length()).find()) {
+      endBlock(matcher.start());
+      // The marker now opens the block; the next one starts after it
+      scanFrom = 1;
+      matcher.reset(block);
+    }
+    scanFrom = resumeFrom();
+  }
+
+  /**
+   * Closes the last block.
+   */
+  void finish() {
+    endBlock(block.length());
+    scanFrom = 0;
+  }
+
+  /**
+   * Number of questions handed to the sink so far.
+   */
+  int getEmitted() {
+    return emitted;
+  }
+
+  /**
+   * Start of a marker that may still be incomplete at the end of the block:
+   * a marker word followed by whitespace and digits, all possibly cut short.
+   */
+  private int resumeFrom() {
+    int i = block.length();
+    while (i > scanFrom && (Character.isWhitespace(block.charAt(i - 1)) || isDigit(block.charAt(i - 1))))
+      i--;
+    return Math.max(scanFrom, i - MARKER_WORD);
+  }
+
+  private void endBlock(int end) {
+    String text = block.substring(0, end).trim();
+    block.delete(0, end);
+    if (text.length() < MIN_LENGTH)
+      return;
+    sink.accept(toQuestion(text));
+    emitted++;
+  }
+
+  private PracticeQuestionDTO toQuestion(String text) {
+    // Extract title (first line or first sentence)
+    String title = MARKER.matcher(text.split("\\n", 2)[0]).replaceFirst("").trim();
+    if (title.length() > TITLE_LENGTH) {
+      title = title.substring(0, TITLE_LENGTH - 3) + "...";
+    }
+
+    return PracticeQuestionDTO.builder()
+        .topicId(topicId)
+        .title(title)
+        .problemStatement(text)
+        .type("Coding")
+        .difficulty("MEDIUM")
+        .solution("") // User needs to provide solution
+        .active(true)
+        .build();
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,125 @@
+package com.skgdp.service;
+
+import com.skgdp.entity.Course;
+import com.skgdp.entity.Question;
+import com.skgdp.entity.Topic;
+import com.skgdp.repository.QuestionKey;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable answer key for every question of one course.
+ *
+ * Questions are stored column-wise in parallel arrays sorted by question id:
+ * the correct option as an upper-case character code, the index of the
+ * question's topic in {@link #getTopics()}, and the difficulty ordinal.
+ * Looking up an answer is a binary search over interned ids.
+ */
+public final class CourseAnswerKey {
+
+  /** Marks a question whose correct option is missing or not a single letter. */
+  static final byte NO_OPTION = 0;
+
+  private final Course course;
+  private final List<Topic> topics;
+  private final String[] questionIds;
+  private final byte[] correctOptions;
+  private final int[] topicIndexes;
+  private final byte[] difficulties;
+
+  private CourseAnswerKey(Course course, List<Topic> topics, String[] questionIds,
+      byte[] correctOptions, int[] topicIndexes, byte[] difficulties) {
+    this.course = course;
+    this.topics = topics;
+    this.questionIds = questionIds;
+    this.correctOptions = correctOptions;
+    this.topicIndexes = topicIndexes;
+    this.difficulties = difficulties;
+  }
+
+  static CourseAnswerKey build(Course course, List<Topic> topics, List<QuestionKey> keys) {
+    Map<String, Integer> topicIndex = new HashMap<>();
+    for (int i = 0; i < topics.size(); i++) {
+      topicIndex.put(topics.get(i).getId(), i);
+    }
+
+    QuestionKey[] sorted = keys.stream()
+        .filter(k -> topicIndex.containsKey(k.getTopicId()))
+        .sorted(Comparator.comparing(QuestionKey::getId))
+        .toArray(QuestionKey[]::new);
+
+    int n = sorted.length;
+    String[] ids = new String[n];
+    byte[] options = new byte[n];
+    int[] topicIndexes = new int[n];
+    byte[] difficulties = new byte[n];
+    for (int i = 0; i < n; i++) {
+      QuestionKey key = sorted[i];
+      ids[i] = key.getId().intern();
+      options[i] = encodeOption(key.getCorrectOption());
+      topicIndexes[i] = topicIndex.get(key.getTopicId());
+      difficulties[i] = encodeDifficulty(key.getDifficulty());
+    }
+    return new CourseAnswerKey(course, List.copyOf(topics), ids, options, topicIndexes, difficulties);
+  }
+
+  public Course getCourse() {
+    return course;
+  }
+
+  public List<Topic> getTopics() {
+    return topics;
+  }
+
+  public int size() {
+    return questionIds.length;
+  }
+
+  public boolean contains(String questionId) {
+    return indexOf(questionId) >= 0;
+  }
+
+  /**
+   * Position of the question in this key, or a negative value if the question
+   * does not belong to the course.
+   */
+  public int indexOf(String questionId) {
+    if (questionId == null)
+      return -1;
+    return Arrays.binarySearch(questionIds, questionId);
+  }
+
+  public boolean isCorrect(int index, String selectedOption) {
+    byte correct = correctOptions[index];
+    return correct != NO_OPTION && encodeOption(selectedOption) == correct;
+  }
+
+  public int topicIndexAt(int index) {
+    return topicIndexes[index];
+  }
+
+  /** Ordinal of the question's difficulty, or -1 when it is not set. */
+  public int difficultyAt(int index) {
+    return difficulties[index];
+  }
+
+  static byte encodeOption(String option) {
+    if (option == null || option.length() != 1)
+      return NO_OPTION;
+    return (byte) Character.toUpperCase(option.charAt(0));
+  }
+
+  private static byte encodeDifficulty(String difficulty) {
+    if (difficulty == null)
+      return -1;
+    try {
+      return (byte) Question.Difficulty.valueOf(difficulty).ordinal();
+    } catch (IllegalArgumentException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.skgdp.service;
+
+import com.skgdp.entity.Assessment;
+import com.skgdp.entity.KnowledgeGap;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists the documents produced by an assessment evaluation.
+ * Each collection is written with a single unordered bulk insert, so a
+ * submission costs at most two round trips regardless of how many gaps it
+ * detects. Writes are idempotent: ids are assigned client-side, so replaying a
+ * partially applied batch only produces duplicate-key errors, which are ignored.
+ */
+@Component
+@RequiredArgsConstructor
+public class EvaluationWriter {
+
+  private static final int DUPLICATE_KEY = 11000;
+
+  private final MongoTemplate mongoTemplate;
+  private final KnowledgeGapStateService gapStateService;
+
+  /**
+   * Writes the documents of several evaluations together, one bulk write per
+   * collection for the whole batch, then folds their topic scores into the
+   * materialized gap state.
+   */
+  public void writeAll(List<Evaluation> evaluations) {
+    List<Assessment> assessments = new ArrayList<>(evaluations.size());
+    List<KnowledgeGap> gaps = new ArrayList<>();
+    List<KnowledgeGapStateService.TopicObservation> observations = new ArrayList<>();
+    for (Evaluation evaluation : evaluations) {
+      assessments.add(evaluation.getAssessment());
+      gaps.addAll(evaluation.getGaps());
+      observations.addAll(evaluation.getObservations());
+    }
+    write(assessments, gaps);
+    gapStateService.record(observations);
+  }
+
+  /**
+   * Assigns ids to any new documents and bulk-inserts them. Ids are generated
+   * client-side so callers can reference them without waiting for the write.
+   */
+  public void write(List<Assessment> assessments, List<KnowledgeGap> gaps) {
+    assessments.forEach(a -> {
+      if (a.getId() == null)
+        a.setId(newId());
+    });
+    gaps.forEach(g -> {
+      if (g.getId() == null)
+        g.setId(newId());
+    });
+
+    if (!assessments.isEmpty()) {
+      insertAll(Assessment.class, assessments);
+    }
+    if (!gaps.isEmpty()) {
+      insertAll(KnowledgeGap.class, gaps);
+    }
+  }
+
+  /**
+   * Assigns ids up front, for callers that return them before the write runs.
+   */
+  public void assignIds(Evaluation evaluation) {
+    if (evaluation.getAssessment().getId() == null)
+      evaluation.getAssessment().setId(newId());
+    evaluation.getGaps().forEach(g -> {
+      if (g.getId() == null)
+        g.setId(newId());
+    });
+  }
+
+  public static String newId() {
+    return new ObjectId().toHexString();
+  }
+
+  private void insertAll(Class<?> entityClass, List<?> documents) {
+    try {
+      mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass)
+          .insert(documents)
+          .execute();
+    } catch (BulkOperationException e) {
+      boolean onlyDuplicates = e.getErrors().stream().allMatch(err -> err.getCode() == DUPLICATE_KEY);
+      if (!onlyDuplicates)
+        throw e;
+    }
+  }
+
+  /**
+   * The documents produced by evaluating one submission.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static class Evaluation {
+    private final Assessment assessment;
+    private final List<KnowledgeGap> gaps;
+    private final List<KnowledgeGapStateService.TopicObservation> observations;
+  }
+}
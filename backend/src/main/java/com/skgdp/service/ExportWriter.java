@@ -0,0 +1,165 @@
+package com.skgdp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams query results to the response as a JSON array or CSV.
+ *
+ * Documents are read from a Mongo cursor and mapped and written a chunk at a
+ * time, so memory use depends on the chunk size, not on the size of the
+ * export. The mapper sees a whole chunk, which lets it resolve references with
+ * one query per chunk.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExportWriter {
+
+  private static final int CHUNK_SIZE = 500;
+
+  private final MongoTemplate mongoTemplate;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * @param format  {@code json} or {@code csv}
+   * @param columns CSV header, in the order {@code row} returns the values
+   */
+  public <T, D> ResponseEntity<StreamingResponseBody> export(String format, String filename,
+      Query query, Class<T> type, Function<List<T>, List<D>> mapper,
+      List<String> columns, Function<D, List<Object>> row) {
+    Sink<D> sink;
+    MediaType contentType;
+    if ("json".equalsIgnoreCase(format)) {
+      sink = new JsonSink<>();
+      contentType = MediaType.APPLICATION_JSON;
+    } else if ("csv".equalsIgnoreCase(format)) {
+      sink = new CsvSink<>(columns, row);
+      contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    } else {
+      throw new RuntimeException("Unsupported format: " + format);
+    }
+
+    StreamingResponseBody body = out -> {
+      try (Stream<T> docs = mongoTemplate.stream(query, type)) {
+        sink.start(out);
+        Iterator<T> it = docs.iterator();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (it.hasNext()) {
+          chunk.add(it.next());
+          if (chunk.size() == CHUNK_SIZE) {
+            sink.write(mapper.apply(chunk));
+            chunk = new ArrayList<>(CHUNK_SIZE);
+          }
+        }
+        if (!chunk.isEmpty())
+          sink.write(mapper.apply(chunk));
+        sink.end();
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(contentType)
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"" + filename + "." + format.toLowerCase() + "\"")
+        .body(body);
+  }
+
+  private interface Sink<D> {
+    void start(OutputStream out) throws IOException;
+
+    void write(List<D> rows) throws IOException;
+
+    void end() throws IOException;
+  }
+
+  private class JsonSink<D> implements Sink<D> {
+    private JsonGenerator generator;
+
+    @Override
+    public void start(OutputStream out) throws IOException {
+      generator = objectMapper.createGenerator(out);
+      generator.writeStartArray();
+    }
+
+    @Override
+    public void write(List<D> rows) throws IOException {
+      for (D row : rows) {
+        generator.writeObject(row);
+      }
+      generator.flush();
+    }
+
+    @Override
+    public void end() throws IOException {
+      generator.writeEndArray();
+      generator.flush();
+    }
+  }
+
+  private static class CsvSink<D> implements Sink<D> {
+    private final List<String> columns;
+    private final Function<D, List<Object>> row;
+    private Writer writer;
+
+    CsvSink(List<String> columns, Function<D, List<Object>> row) {
+      this.columns = columns;
+      this.row = row;
+    }
+
+    @Override
+    public void start(OutputStream out) throws IOException {
+      writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+      writeLine(new ArrayList<>(columns));
+    }
+
+    @Override
+    public void write(List<D> rows) throws IOException {
+      for (D r : rows) {
+        writeLine(row.apply(r));
+      }
+      writer.flush();
+    }
+
+    @Override
+    public void end() throws IOException {
+      writer.flush();
+    }
+
+    private void writeLine(List<Object> values) throws IOException {
+      for (int i = 0; i < values.size(); i++) {
+        if (i > 0)
+          writer.write(',');
+        writer.write(escape(values.get(i)));
+      }
+      writer.write("\r\n");
+    }
+
+    private static String escape(Object value) {
+      if (value == null)
+        return "";
+      String text = value.toString();
+      if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0)
+        return text;
+      return '"' + text.replace("\"", "\"\"") + '"';
+    }
+  }
+}
@@ -3,6 +3,8 @@ package com.skgdp.service;
 import com.skgdp.dto.*;
 import com.skgdp.entity.*;
 import com.skgdp.repository.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,136 +17,223 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class GapDetectionService {
 
+  private static final int OUTSIDE_COURSE_CHUNK = 500;
+
   private final QuestionRepository questionRepo;
-  private final TopicRepository topicRepo;
-  private final AssessmentRepository assessmentRepo;
   private final KnowledgeGapRepository gapRepo;
-  private final RecommendationRepository recRepo;
+  private final RecommendationIndex recommendationIndex;
   private final UserRepository userRepo;
-  private final CourseRepository courseRepo;
+  private final AnswerKeyCache answerKeyCache;
+  private final AssessmentWriteBehind writeBehind;
+  private final KnowledgeGapStateService gapStateService;
+  private final GapRuleEngine gapRuleEngine;
+  private final ReferenceResolver referenceResolver;
 
   @Transactional
   public AssessmentResultDTO evaluateAssessment(AssessmentSubmissionDTO submission) {
-    User student = userRepo.findById(submission.getStudentId())
-        .orElseThrow(() -> new RuntimeException("Student not found"));
-    Course course = courseRepo.findById(submission.getCourseId())
-        .orElseThrow(() -> new RuntimeException("Course not found"));
-
-    // Get topics for this course
-    List<Topic> courseTopics = topicRepo.findByCourseId(submission.getCourseId());
-    Map<String, Topic> topicMap = courseTopics.stream()
-        .collect(Collectors.toMap(Topic::getId, t -> t));
+    return evaluateAssessment(submission.getCourseId(), submission.getStudentId(),
+        submission.getAnswers().iterator());
+  }
 
-    // Track per-topic performance
-    Map<String, List<Boolean>> topicPerformance = new HashMap<>();
-    courseTopics.forEach(t -> topicPerformance.put(t.getId(), new ArrayList<>()));
+  /**
+   * Scores answers as they are read from the iterator. Memory use is bounded by
+   * the number of course topics plus one chunk of answers to questions outside
+   * the course, however many answers there are.
+   */
+  public AssessmentResultDTO evaluateAssessment(String courseId, String studentId,
+      Iterator<AssessmentSubmissionDTO.AnswerDTO> answers) {
+    User student = userRepo.findById(studentId)
+        .orElseThrow(() -> new RuntimeException("Student not found"));
+    // Course, topics and the answer key all come from the in-memory cache
+    CourseAnswerKey answerKey = answerKeyCache.get(courseId);
 
-    int totalCorrect = 0;
+    TopicScoreboard scoreboard = new TopicScoreboard(answerKey);
+    List<AssessmentSubmissionDTO.AnswerDTO> outsideCourse = new ArrayList<>();
 
     // Process each answer
-    for (AssessmentSubmissionDTO.AnswerDTO ans : submission.getAnswers()) {
-      Question question = questionRepo.findById(ans.getQuestionId())
-          .orElse(null);
-      if (question == null)
-        continue;
-
-      boolean isCorrect = question.getCorrectOption().equalsIgnoreCase(ans.getSelectedOption());
-      if (isCorrect)
-        totalCorrect++;
-
-      topicPerformance.computeIfAbsent(question.getTopic().getId(), k -> new ArrayList<>())
-          .add(isCorrect);
+    while (answers.hasNext()) {
+      AssessmentSubmissionDTO.AnswerDTO ans = answers.next();
+      if (!scoreboard.record(ans.getQuestionId(), ans.getSelectedOption())) {
+        outsideCourse.add(ans);
+        // Questions from other courses still count towards the total score;
+        // they are rare, so they are looked up in batched queries
+        if (outsideCourse.size() == OUTSIDE_COURSE_CHUNK) {
+          scoreboard.addCorrect(countCorrect(outsideCourse));
+          outsideCourse.clear();
+        }
+      }
     }
+    // An empty submission has no score, only a percentage of 0/0
+    if (scoreboard.getAnswerCount() == 0)
+      throw new IllegalArgumentException("No answers submitted");
+    scoreboard.addCorrect(countCorrect(outsideCourse));
+
+    ScoredSubmission scored = score(student, answerKey, scoreboard);
+    // Persist the assessment, the detected gaps and the gap-state updates; with
+    // write-behind enabled this only enqueues them
+    writeBehind.submit(scored.getEvaluation());
+    return scored.getResult();
+  }
 
-    double percentage = (double) totalCorrect / submission.getAnswers().size() * 100;
+  /**
+   * Builds the result and the documents to persist from a filled scoreboard.
+   * Document ids are assigned here so the result can reference them before
+   * anything is written.
+   */
+  ScoredSubmission score(User student, CourseAnswerKey answerKey, TopicScoreboard scoreboard) {
+    Course course = answerKey.getCourse();
+    List<Topic> courseTopics = answerKey.getTopics();
+    GapRuleSet.CourseRules rules = gapRuleEngine.current().forCourse(course.getId());
+
+    int totalCorrect = scoreboard.getTotalCorrect();
+    int maxScore = scoreboard.getAnswerCount();
+    double percentage = (double) totalCorrect / maxScore * 100;
+    LocalDateTime now = LocalDateTime.now();
 
-    // Save assessment
     Assessment assessment = Assessment.builder()
+        .id(EvaluationWriter.newId())
         .student(student)
         .course(course)
+        .studentName(student.getFullName())
+        .courseName(course.getTitle())
+        .courseCode(course.getCode())
         .score(percentage)
-        .submissionDate(LocalDateTime.now())
+        .submissionDate(now)
         .build();
-    assessmentRepo.save(assessment);
+    List<KnowledgeGap> detectedGaps = new ArrayList<>();
+    List<KnowledgeGapStateService.TopicObservation> observations = new ArrayList<>();
 
     // Build topic breakdown and detect gaps
     List<AssessmentResultDTO.TopicBreakdown> breakdown = new ArrayList<>();
     List<AssessmentResultDTO.GapDTO> gaps = new ArrayList<>();
     List<String> gapTopicIds = new ArrayList<>();
 
-    for (Topic topic : courseTopics) {
-      List<Boolean> results = topicPerformance.get(topic.getId());
-      if (results == null || results.isEmpty())
+    for (int i = 0; i < courseTopics.size(); i++) {
+      int total = scoreboard.totalAt(i);
+      if (total == 0)
         continue;
 
-      long correctCount = results.stream().filter(r -> r).count();
-      double topicPercentage = (double) correctCount / results.size() * 100;
+      Topic topic = courseTopics.get(i);
+      int correctCount = scoreboard.correctAt(i);
+      double topicPercentage = (double) correctCount / total * 100;
 
       breakdown.add(AssessmentResultDTO.TopicBreakdown.builder()
           .topicId(topic.getId())
           .topicName(topic.getName())
-          .correct((int) correctCount)
-          .total(results.size())
+          .correct(correctCount)
+          .total(total)
           .percentage(topicPercentage)
           .build());
 
-      // Detect gap if below 60%
-      if (topicPercentage < 60.0) {
+      // The weakness score is difficulty-weighted when the rule says so
+      GapRuleSet.CompiledRule rule = rules.forTopic(topic.getId());
+      double weaknessScore = rule.score(scoreboard, i);
+      observations.add(new KnowledgeGapStateService.TopicObservation(
+          student.getId(), topic.getId(), course.getId(), weaknessScore, rule.getThreshold(), now,
+          assessment.getId()));
+
+      // Detect gap if below the rule's threshold
+      if (rule.isGap(weaknessScore, total)) {
         KnowledgeGap gap = KnowledgeGap.builder()
+            .id(EvaluationWriter.newId())
             .student(student)
             .topic(topic)
-            .weaknessScore(topicPercentage)
-            .detectedAt(LocalDateTime.now())
+            .weaknessScore(weaknessScore)
+            .detectedAt(now)
             .build();
-        gapRepo.save(gap);
+        detectedGaps.add(gap);
 
         gaps.add(AssessmentResultDTO.GapDTO.builder()
             .id(gap.getId())
             .studentId(student.getId())
             .topicId(topic.getId())
-            .weaknessScore(topicPercentage)
-            .detectedAt(gap.getDetectedAt().toString())
+            .weaknessScore(weaknessScore)
+            .detectedAt(now.toString())
             .build());
 
         gapTopicIds.add(topic.getId());
       }
     }
 
-    // Fetch recommendations for gap topics
-    List<AssessmentResultDTO.RecommendationDTO> recommendations = new ArrayList<>();
-    if (!gapTopicIds.isEmpty()) {
-      List<Recommendation> recs = recRepo.findByTopicIdIn(gapTopicIds);
-      recommendations = recs.stream()
-          .map(r -> AssessmentResultDTO.RecommendationDTO.builder()
-              .id(r.getId())
-              .topicId(r.getTopic().getId())
-              .url(r.getUrl())
-              .description(r.getDescription())
-              .type(r.getType().name())
-              .build())
-          .collect(Collectors.toList());
-    }
+    // Recommendations for gap topics come from the in-memory index
+    List<AssessmentResultDTO.RecommendationDTO> recommendations = recommendationIndex.forTopics(gapTopicIds);
 
-    return AssessmentResultDTO.builder()
+    AssessmentResultDTO result = AssessmentResultDTO.builder()
         .totalScore(totalCorrect)
-        .maxScore(submission.getAnswers().size())
+        .maxScore(maxScore)
         .percentage(percentage)
         .breakdown(breakdown)
         .gaps(gaps)
         .recommendations(recommendations)
         .build();
+    return new ScoredSubmission(result,
+        new EvaluationWriter.Evaluation(assessment, detectedGaps, observations));
   }
 
+  int countCorrect(List<AssessmentSubmissionDTO.AnswerDTO> answers) {
+    if (answers.isEmpty())
+      return 0;
+
+    List<String> questionIds = answers.stream()
+        .map(AssessmentSubmissionDTO.AnswerDTO::getQuestionId)
+        .filter(Objects::nonNull)
+        .distinct()
+        .collect(Collectors.toList());
+    Map<String, QuestionKey> questionKeys = questionRepo.findKeysByIdIn(questionIds).stream()
+        .collect(Collectors.toMap(QuestionKey::getId, k -> k));
+
+    int correct = 0;
+    for (AssessmentSubmissionDTO.AnswerDTO ans : answers) {
+      QuestionKey question = questionKeys.get(ans.getQuestionId());
+      if (question != null && question.isCorrect(ans.getSelectedOption()))
+        correct++;
+    }
+    return correct;
+  }
+
+  /**
+   * Current gaps of a student: topics whose weighted weakness score is below
+   * the threshold, one entry per topic.
+   */
   public List<AssessmentResultDTO.GapDTO> getStudentGaps(String studentId) {
+    return gapStateService.getStates(studentId).stream()
+        .filter(gapStateService::isGap)
+        .map(s -> AssessmentResultDTO.GapDTO.builder()
+            .id(s.getId())
+            .studentId(s.getStudentId())
+            .topicId(s.getTopicId())
+            .weaknessScore(s.getWeaknessScore())
+            .detectedAt(s.getLastSeenAt().toString())
+            .build())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Every gap ever detected for a student, for audits.
+   */
+  public List<AssessmentResultDTO.GapDTO> getStudentGapHistory(String studentId) {
     List<KnowledgeGap> gaps = gapRepo.findByStudentId(studentId);
+    referenceResolver.resolve(gaps, Topic.class, KnowledgeGap::getTopic, KnowledgeGap::setTopic);
     return gaps.stream()
+        .filter(g -> g.getTopic() != null)
         .map(g -> AssessmentResultDTO.GapDTO.builder()
             .id(g.getId())
-            .studentId(g.getStudent().getId())
+            .studentId(studentId)
             .topicId(g.getTopic().getId())
             .weaknessScore(g.getWeaknessScore())
             .detectedAt(g.getDetectedAt().toString())
             .build())
         .collect(Collectors.toList());
   }
+
+  /**
+   * A scored submission: the response for the student and the documents that
+   * still have to be persisted.
+   */
+  @Getter
+  @AllArgsConstructor
+  static class ScoredSubmission {
+    private final AssessmentResultDTO result;
+    private final EvaluationWriter.Evaluation evaluation;
+  }
 }
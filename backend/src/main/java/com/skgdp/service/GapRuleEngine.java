@@ -0,0 +1,104 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.GapRuleDTO;
+import com.skgdp.entity.GapRule;
+import com.skgdp.entity.Question;
+import com.skgdp.repository.GapRuleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the active {@link GapRuleSet}.
+ *
+ * Rules are compiled once when they are loaded or changed and published
+ * with a single atomic swap, so scoring always sees a complete rule set and
+ * never touches the database for rules.
+ */
+@Service
+@Slf4j
+public class GapRuleEngine {
+
+  private final GapRuleRepository ruleRepo;
+  private final double defaultThreshold;
+  private final AtomicReference<GapRuleSet> current = new AtomicReference<>();
+
+  public GapRuleEngine(
+      GapRuleRepository ruleRepo,
+      @Value("${skgdp.gaps.default-threshold:60}") double defaultThreshold) {
+    this.ruleRepo = ruleRepo;
+    this.defaultThreshold = defaultThreshold;
+    this.current.set(GapRuleSet.compile(defaultThreshold, List.of()));
+  }
+
+  @PostConstruct
+  public void load() {
+    reload();
+  }
+
+  public GapRuleSet current() {
+    return current.get();
+  }
+
+  public List<GapRuleDTO> getRules() {
+    return ruleRepo.findAll().stream()
+        .map(GapRuleDTO::fromEntity)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Creates or replaces the rule for a course, or for a topic of a course,
+   * and swaps in a recompiled rule set.
+   */
+  public synchronized GapRuleDTO saveRule(GapRuleDTO dto) {
+    if (dto.getCourseId() == null || dto.getCourseId().isEmpty())
+      throw new IllegalArgumentException("courseId is required");
+    if (dto.getThreshold() != null && (dto.getThreshold() < 0 || dto.getThreshold() > 100))
+      throw new IllegalArgumentException("threshold must be between 0 and 100");
+
+    GapRule rule = ruleRepo.findByCourseIdAndTopicId(dto.getCourseId(), dto.getTopicId())
+        .orElseGet(GapRule::new);
+    rule.setCourseId(dto.getCourseId());
+    rule.setTopicId(dto.getTopicId());
+    rule.setThreshold(dto.getThreshold());
+    rule.setMinSamples(dto.getMinSamples());
+    rule.setDifficultyWeights(toWeights(dto.getDifficultyWeights()));
+
+    GapRule saved = ruleRepo.save(rule);
+    reload();
+    return GapRuleDTO.fromEntity(saved);
+  }
+
+  public synchronized boolean deleteRule(String id) {
+    if (!ruleRepo.existsById(id))
+      return false;
+    ruleRepo.deleteById(id);
+    reload();
+    return true;
+  }
+
+  private void reload() {
+    List<GapRule> rules = ruleRepo.findAll();
+    current.set(GapRuleSet.compile(defaultThreshold, rules));
+    log.info("Compiled {} gap rules", rules.size());
+  }
+
+  private static Map<Question.Difficulty, Double> toWeights(Map<String, Double> weights) {
+    if (weights == null)
+      return null;
+    Map<Question.Difficulty, Double> result = new EnumMap<>(Question.Difficulty.class);
+    weights.forEach((difficulty, weight) -> {
+      if (weight == null || weight < 0)
+        throw new IllegalArgumentException("Invalid weight for " + difficulty);
+      result.put(Question.Difficulty.valueOf(difficulty.toUpperCase()), weight);
+    });
+    return result;
+  }
+}
@@ -0,0 +1,146 @@
+package com.skgdp.service;
+
+import com.skgdp.entity.GapRule;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, precompiled form of all gap rules.
+ *
+ * Every rule is resolved against its parents (topic, then course, then the
+ * global default) when the set is compiled, so evaluating a topic is a map
+ * lookup and a few arithmetic operations.
+ */
+public final class GapRuleSet {
+
+  private final CourseRules defaultCourse;
+  private final Map<String, CourseRules> courses;
+
+  private GapRuleSet(CourseRules defaultCourse, Map<String, CourseRules> courses) {
+    this.defaultCourse = defaultCourse;
+    this.courses = courses;
+  }
+
+  static GapRuleSet compile(double defaultThreshold, List<GapRule> rules) {
+    double[] unitWeights = new double[TopicScoreboard.SLOTS];
+    Arrays.fill(unitWeights, 1.0);
+    CompiledRule defaultRule = new CompiledRule(defaultThreshold, 1, unitWeights);
+
+    Map<String, CompiledRule> courseRules = new HashMap<>();
+    for (GapRule rule : rules) {
+      if (rule.getCourseId() != null && rule.getTopicId() == null)
+        courseRules.put(rule.getCourseId(), defaultRule.overriddenBy(rule));
+    }
+
+    Map<String, Map<String, CompiledRule>> topicRules = new HashMap<>();
+    for (GapRule rule : rules) {
+      if (rule.getCourseId() != null && rule.getTopicId() != null) {
+        CompiledRule parent = courseRules.getOrDefault(rule.getCourseId(), defaultRule);
+        topicRules.computeIfAbsent(rule.getCourseId(), k -> new HashMap<>())
+            .put(rule.getTopicId(), parent.overriddenBy(rule));
+      }
+    }
+
+    Set<String> courseIds = new HashSet<>(courseRules.keySet());
+    courseIds.addAll(topicRules.keySet());
+    Map<String, CourseRules> courses = new HashMap<>();
+    for (String courseId : courseIds) {
+      courses.put(courseId, new CourseRules(
+          courseRules.getOrDefault(courseId, defaultRule),
+          Map.copyOf(topicRules.getOrDefault(courseId, Map.of()))));
+    }
+
+    return new GapRuleSet(new CourseRules(defaultRule, Map.of()), Map.copyOf(courses));
+  }
+
+  public CourseRules forCourse(String courseId) {
+    CourseRules rules = courseId == null ? null : courses.get(courseId);
+    return rules != null ? rules : defaultCourse;
+  }
+
+  /**
+   * Rules of one course: the course-wide rule plus per-topic overrides.
+   */
+  public static final class CourseRules {
+    private final CompiledRule courseRule;
+    private final Map<String, CompiledRule> topicRules;
+
+    private CourseRules(CompiledRule courseRule, Map<String, CompiledRule> topicRules) {
+      this.courseRule = courseRule;
+      this.topicRules = topicRules;
+    }
+
+    public CompiledRule forTopic(String topicId) {
+      CompiledRule rule = topicRules.isEmpty() ? null : topicRules.get(topicId);
+      return rule != null ? rule : courseRule;
+    }
+  }
+
+  /**
+   * A fully resolved rule: threshold, minimum sample size and one weight per
+   * difficulty slot of {@link TopicScoreboard}.
+   */
+  public static final class CompiledRule {
+    private final double threshold;
+    private final int minSamples;
+    private final double[] weights;
+    private final boolean weighted;
+
+    private CompiledRule(double threshold, int minSamples, double[] weights) {
+      this.threshold = threshold;
+      this.minSamples = minSamples;
+      this.weights = weights;
+      this.weighted = Arrays.stream(weights).anyMatch(w -> w != 1.0);
+    }
+
+    private CompiledRule overriddenBy(GapRule rule) {
+      double[] merged = weights.clone();
+      if (rule.getDifficultyWeights() != null) {
+        rule.getDifficultyWeights().forEach((difficulty, weight) -> {
+          if (difficulty != null && weight != null)
+            merged[difficulty.ordinal()] = weight;
+        });
+      }
+      return new CompiledRule(
+          rule.getThreshold() != null ? rule.getThreshold() : threshold,
+          rule.getMinSamples() != null ? rule.getMinSamples() : minSamples,
+          merged);
+    }
+
+    public double getThreshold() {
+      return threshold;
+    }
+
+    public int getMinSamples() {
+      return minSamples;
+    }
+
+    /**
+     * Difficulty-weighted percentage of a topic. Equals the plain percentage
+     * when every weight is 1.
+     */
+    public double score(TopicScoreboard scoreboard, int topicIndex) {
+      if (!weighted) {
+        int total = scoreboard.totalAt(topicIndex);
+        return total == 0 ? 0 : (double) scoreboard.correctAt(topicIndex) / total * 100;
+      }
+
+      double correct = 0;
+      double total = 0;
+      for (int slot = 0; slot < weights.length; slot++) {
+        correct += weights[slot] * scoreboard.correctAt(topicIndex, slot);
+        total += weights[slot] * scoreboard.totalAt(topicIndex, slot);
+      }
+      return total == 0 ? 0 : correct / total * 100;
+    }
+
+    public boolean isGap(double score, int samples) {
+      return samples >= minSamples && score < threshold;
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package com.skgdp.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.skgdp.entity.Course;
+import com.skgdp.entity.KnowledgeGap;
+import com.skgdp.entity.KnowledgeGapState;
+import com.skgdp.entity.Topic;
+import com.skgdp.repository.KnowledgeGapRepository;
+import com.skgdp.repository.KnowledgeGapStateRepository;
+import com.skgdp.repository.ReferenceResolver;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the materialized per-(student, topic) gap state.
+ *
+ * Each observation folds a topic percentage into an exponentially weighted
+ * weakness score with a single atomic upsert, so reading a student's gaps is
+ * one indexed query over at most one document per topic.
+ */
+@Service
+public class KnowledgeGapStateService {
+
+  private static final int DUPLICATE_KEY = 11000;
+  // Applied sources remembered per state; a replayed batch is skipped as long
+  // as it has at most this many observations of one topic
+  private static final int RECENT_SOURCES = 64;
+  private static final String MIGRATIONS = "migrations";
+
+  private final MongoTemplate mongoTemplate;
+  private final KnowledgeGapStateRepository stateRepo;
+  private final KnowledgeGapRepository gapRepo;
+  private final GapRuleEngine gapRuleEngine;
+  private final ReferenceResolver referenceResolver;
+  private final double alpha;
+
+  public KnowledgeGapStateService(
+      MongoTemplate mongoTemplate,
+      KnowledgeGapStateRepository stateRepo,
+      KnowledgeGapRepository gapRepo,
+      GapRuleEngine gapRuleEngine,
+      ReferenceResolver referenceResolver,
+      @Value("${skgdp.gaps.ewma-alpha:0.5}") double alpha) {
+    this.mongoTemplate = mongoTemplate;
+    this.stateRepo = stateRepo;
+    this.gapRepo = gapRepo;
+    this.gapRuleEngine = gapRuleEngine;
+    this.referenceResolver = referenceResolver;
+    this.alpha = alpha;
+  }
+
+  /**
+   * Applies the observations in as few unordered bulk upserts as possible.
+   * Observations of the same (student, topic) keep their relative order by
+   * going into successive bulks.
+   *
+   * An observation whose source is among the state's recent sources is
+   * skipped: its filter misses, the upsert collides with the unique
+   * (studentId, topicId) index, and the plain update it is retried as then
+   * matches nothing. This makes replayed batches safe without dropping a
+   * first observation that raced another one for the same topic.
+   */
+  public void record(List<TopicObservation> observations) {
+    List<List<TopicObservation>> rounds = new ArrayList<>();
+    Map<String, Integer> seen = new HashMap<>();
+    for (TopicObservation observation : observations) {
+      int round = seen.merge(observation.getStudentId() + ':' + observation.getTopicId(), 1, Integer::sum) - 1;
+      if (round == rounds.size())
+        rounds.add(new ArrayList<>());
+      rounds.get(round).add(observation);
+    }
+    rounds.forEach(this::upsertAll);
+  }
+
+  public void record(TopicObservation observation) {
+    record(List.of(observation));
+  }
+
+  private void upsertAll(List<TopicObservation> observations) {
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, KnowledgeGapState.class);
+    for (TopicObservation observation : observations) {
+      bulk.upsert(stateQuery(observation), toUpdate(observation));
+    }
+
+    List<TopicObservation> collided = new ArrayList<>();
+    try {
+      bulk.execute();
+    } catch (BulkOperationException e) {
+      for (BulkWriteError error : e.getErrors()) {
+        if (error.getCode() != DUPLICATE_KEY)
+          throw e;
+        collided.add(observations.get(error.getIndex()));
+      }
+    }
+    if (collided.isEmpty())
+      return;
+
+    // A duplicate key means the document now exists: either this source
+    // already produced it (a replay), or a concurrent first observation
+    // inserted it. Applying the update again without upsert tells them
+    // apart, since it only misses for a replay.
+    BulkOperations retry = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, KnowledgeGapState.class);
+    for (TopicObservation observation : collided) {
+      retry.updateOne(stateQuery(observation), toUpdate(observation));
+    }
+    retry.execute();
+  }
+
+  private static Query stateQuery(TopicObservation observation) {
+    // lastSourceId covers states written before recentSourceIds existed
+    return new Query(Criteria.where("studentId").is(observation.getStudentId())
+        .and("topicId").is(observation.getTopicId())
+        .and("lastSourceId").ne(observation.getSourceId())
+        .and("recentSourceIds").ne(observation.getSourceId()));
+  }
+
+  /**
+   * Current state of every topic the student has been observed on. Students
+   * who only have gap history from before the state collection existed are
+   * backfilled from that history on first read, once: a concurrent first read
+   * does not backfill again and may see no states until the first one is done.
+   */
+  public List<KnowledgeGapState> getStates(String studentId) {
+    List<KnowledgeGapState> states = stateRepo.findByStudentId(studentId);
+    if (states.isEmpty() && backfill(studentId))
+      states = stateRepo.findByStudentId(studentId);
+    return states;
+  }
+
+  /**
+   * Whether a state is currently a gap under its topic's rule, with the
+   * number of observations as the sample count. States stored before the
+   * course was recorded fall back to the default rules.
+   */
+  public boolean isGap(KnowledgeGapState state) {
+    if (state.getWeaknessScore() == null)
+      return false;
+    int samples = state.getSampleCount() != null ? state.getSampleCount() : 0;
+    return gapRuleEngine.current().forCourse(state.getCourseId()).forTopic(state.getTopicId())
+        .isGap(state.getWeaknessScore(), samples);
+  }
+
+  private boolean backfill(String studentId) {
+    List<KnowledgeGap> history = new ArrayList<>(gapRepo.findByStudentId(studentId));
+    if (history.isEmpty())
+      return false;
+
+    // The marker's unique _id lets only one reader replay the history
+    String markerId = "gap-state-backfill:" + studentId;
+    Query marker = new Query(Criteria.where("_id").is(markerId));
+    try {
+      mongoTemplate.insert(new Document("_id", markerId).append("startedAt", new Date()), MIGRATIONS);
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+    try {
+      backfill(studentId, history);
+    } catch (RuntimeException e) {
+      mongoTemplate.remove(marker, MIGRATIONS);
+      throw e;
+    }
+    mongoTemplate.updateFirst(marker, new Update().set("completedAt", new Date()), MIGRATIONS);
+    return true;
+  }
+
+  private void backfill(String studentId, List<KnowledgeGap> history) {
+    // Topics, then their courses, with one query each
+    List<Topic> topics = referenceResolver.resolve(history, Topic.class, KnowledgeGap::getTopic, KnowledgeGap::setTopic);
+    referenceResolver.resolve(topics, Course.class, Topic::getCourse, Topic::setCourse);
+    history.sort(Comparator.comparing(KnowledgeGap::getDetectedAt,
+        Comparator.nullsFirst(Comparator.naturalOrder())));
+    List<TopicObservation> observations = new ArrayList<>();
+    for (KnowledgeGap gap : history) {
+      if (gap.getTopic() == null || gap.getDetectedAt() == null)
+        continue;
+      String courseId = gap.getTopic().getCourse() != null ? gap.getTopic().getCourse().getId() : null;
+      double threshold = gapRuleEngine.current().forCourse(courseId).forTopic(gap.getTopic().getId()).getThreshold();
+      observations.add(new TopicObservation(studentId, gap.getTopic().getId(), courseId, gap.getWeaknessScore(),
+          threshold, gap.getDetectedAt(), gap.getId()));
+    }
+    record(observations);
+  }
+
+  private AggregationUpdate toUpdate(TopicObservation observation) {
+    double score = observation.getScore();
+    // alpha * score + (1 - alpha) * previous, where a missing previous value
+    // falls back to the score itself
+    AggregationExpression weighted = context -> new Document("$add", List.of(
+        alpha * score,
+        new Document("$multiply", List.of(1 - alpha,
+            new Document("$ifNull", List.of("$weaknessScore", score))))));
+    AggregationExpression sampleCount = context -> new Document("$add", List.of(
+        new Document("$ifNull", List.of("$sampleCount", 0)), 1));
+    AggregationExpression recentSources = context -> new Document("$slice", List.of(
+        new Document("$concatArrays", List.of(
+            new Document("$ifNull", List.of("$recentSourceIds", List.of())),
+            List.of(observation.getSourceId()))),
+        -RECENT_SOURCES));
+
+    return AggregationUpdate.update()
+        .set("weaknessScore").toValue(weighted)
+        .set("sampleCount").toValue(sampleCount)
+        .set("lastScore").toValue(score)
+        .set("courseId").toValue(observation.getCourseId())
+        .set("threshold").toValue(observation.getThreshold())
+        .set("lastSeenAt").toValue(toDate(observation.getObservedAt()))
+        .set("lastSourceId").toValue(observation.getSourceId())
+        .set("recentSourceIds").toValue(recentSources);
+  }
+
+  // Stored the same way Spring converts LocalDateTime fields
+  private static Date toDate(LocalDateTime dateTime) {
+    return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+  }
+
+  /**
+   * One topic percentage observed for a student by an assessment or attempt.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static class TopicObservation {
+    private final String studentId;
+    private final String topicId;
+    private final String courseId;
+    private final double score;
+    private final double threshold;
+    private final LocalDateTime observedAt;
+    private final String sourceId;
+  }
+}
@@ -0,0 +1,307 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.PracticeQuestionDTO;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass MCQ parser. Text is fed in chunks of any size, every line is
+ * classified once by scanning its first characters, and each question is
+ * handed to the sink as soon as its block ends.
+ *
+ * A block is a question stem followed by options A to D and an optional
+ * answer line. A numbered line ("1.", "Q2)", "3:") always starts a new block;
+ * otherwise a blank line ends a block once its options have started, and
+ * discards unnumbered text that no options followed. Text after all four
+ * options starts a new block. Blocks without all four options are dropped.
+ */
+class McqTokenizer {
+
+  private static final int OPTIONS = 4;
+  private static final int TITLE_LENGTH = 50;
+
+  private final String topicId;
+  private final Consumer<PracticeQuestionDTO> sink;
+
+  // Partial line carried over between chunks
+  private final StringBuilder pending = new StringBuilder();
+  private boolean skipLineFeed;
+
+  // Current block
+  private final StringBuilder stem = new StringBuilder();
+  private final String[] options = new String[OPTIONS];
+  private boolean numbered;
+  private boolean inOptions;
+  private char answer;
+
+  private int emitted;
+
+  McqTokenizer(String topicId, Consumer<PracticeQuestionDTO> sink) {
+    this.topicId = topicId;
+    this.sink = sink;
+  }
+
+  /**
+   * Consumes a chunk of text. A line split across chunks is parsed once the
+   * rest of it arrives.
+   */
+  void feed(CharSequence text) {
+    int start = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\n' && skipLineFeed && i == 0) {
+        // Second half of a \r\n split across chunks
+        start = i + 1;
+        skipLineFeed = false;
+        continue;
+      }
+      skipLineFeed = false;
+      if (c != '\n' && c != '\r')
+        continue;
+
+      if (pending.length() > 0) {
+        pending.append(text, start, i);
+        line(pending.toString());
+        pending.setLength(0);
+      } else {
+        line(text.subSequence(start, i).toString());
+      }
+      if (c == '\r') {
+        if (i + 1 < text.length() && text.charAt(i + 1) == '\n')
+          i++;
+        else if (i + 1 == text.length())
+          skipLineFeed = true;
+      }
+      start = i + 1;
+    }
+    pending.append(text, start, text.length());
+  }
+
+  /**
+   * Parses the last line and closes the last block.
+   */
+  void finish() {
+    if (pending.length() > 0) {
+      line(pending.toString());
+      pending.setLength(0);
+    }
+    endBlock();
+  }
+
+  /**
+   * Number of questions handed to the sink so far.
+   */
+  int getEmitted() {
+    return emitted;
+  }
+
+  private void line(String raw) {
+    String line = raw.trim();
+    if (line.isEmpty()) {
+      if (inOptions || !numbered)
+        endBlock();
+      return;
+    }
+
+    int option = optionIndex(line);
+    if (option >= 0) {
+      options[option] = optionText(line);
+      inOptions = true;
+      return;
+    }
+
+    int stemStart = questionNumberEnd(line);
+    if (stemStart >= 0) {
+      endBlock();
+      numbered = true;
+      appendStem(line.substring(stemStart));
+      return;
+    }
+
+    char letter = answerLetter(line);
+    if (letter != 0) {
+      answer = letter;
+      return;
+    }
+    // Text after a full set of options starts the next question; text after
+    // a partial set is dropped
+    if (inOptions && hasAllOptions())
+      endBlock();
+    if (!inOptions)
+      appendStem(line);
+  }
+
+  private void appendStem(String text) {
+    if (text.isEmpty())
+      return;
+    if (stem.length() > 0)
+      stem.append(' ');
+    stem.append(text);
+  }
+
+  private void endBlock() {
+    if (stem.length() > 0 && hasAllOptions()) {
+      sink.accept(toQuestion());
+      emitted++;
+    }
+
+    stem.setLength(0);
+    Arrays.fill(options, null);
+    numbered = false;
+    inOptions = false;
+    answer = 0;
+  }
+
+  private boolean hasAllOptions() {
+    for (String option : options) {
+      if (option == null)
+        return false;
+    }
+    return true;
+  }
+
+  private PracticeQuestionDTO toQuestion() {
+    String questionText = stem.toString();
+    String problemStatement = questionText + "\n" +
+        "A) " + options[0] + "\n" +
+        "B) " + options[1] + "\n" +
+        "C) " + options[2] + "\n" +
+        "D) " + options[3];
+
+    return PracticeQuestionDTO.builder()
+        .topicId(topicId)
+        .title(questionText.length() > TITLE_LENGTH ? questionText.substring(0, TITLE_LENGTH - 3) + "..." : questionText)
+        .problemStatement(problemStatement)
+        .options(List.of(options))
+        .type("MCQ")
+        .difficulty("MEDIUM")
+        .solution(answer != 0 ? String.valueOf(answer) : "A") // Default to A if no answer provided
+        .active(true)
+        .build();
+  }
+
+  /**
+   * Option index for lines like "A) x", "b. x", "(C) x", "D] x" or "a: x",
+   * otherwise -1.
+   */
+  static int optionIndex(String line) {
+    int i = line.charAt(0) == '(' ? 1 : 0;
+    if (i >= line.length())
+      return -1;
+    int index = Character.toUpperCase(line.charAt(i)) - 'A';
+    if (index < 0 || index >= OPTIONS)
+      return -1;
+    if (i + 1 >= line.length() || ".)]:".indexOf(line.charAt(i + 1)) < 0)
+      return -1;
+    return index;
+  }
+
+  /**
+   * Text of a line {@link #optionIndex} accepted, without its label.
+   */
+  static String optionText(String line) {
+    int i = (line.charAt(0) == '(' ? 1 : 0) + 2;
+    if (i < line.length() && line.charAt(i) == ')')
+      i++;
+    return line.substring(i).trim();
+  }
+
+  /**
+   * Where the stem starts after a leading question number such as "1.",
+   * "Q 12)" or "3:", or -1 if the line does not start with one. "3.14 ..."
+   * is not a question number.
+   */
+  static int questionNumberEnd(String line) {
+    int i = 0;
+    int length = line.length();
+    if (line.charAt(0) == 'Q' || line.charAt(0) == 'q') {
+      i++;
+      while (i < length && Character.isWhitespace(line.charAt(i)))
+        i++;
+    }
+    int digits = i;
+    while (i < length && isDigit(line.charAt(i)))
+      i++;
+    if (i == digits)
+      return -1;
+    while (i < length && Character.isWhitespace(line.charAt(i)))
+      i++;
+    int punctuation = i;
+    while (i < length && ".):".indexOf(line.charAt(i)) >= 0)
+      i++;
+    if (i == punctuation || (i < length && isDigit(line.charAt(i))))
+      return -1;
+    while (i < length && Character.isWhitespace(line.charAt(i)))
+      i++;
+    return i;
+  }
+
+  /**
+   * The upper-case letter of lines like "Answer: B", "Ans - (c)",
+   * "Correct answer: D" or "Answer C", otherwise 0. Without a ":", "-" or "."
+   * or the word answer or option before it, the letter has to end the line,
+   * so stems like "Correct a bug ..." or "Answer a question ..." are not
+   * taken for answers.
+   */
+  static char answerLetter(String line) {
+    int i = skipWord(line, 0, "answer", "ans", "correct");
+    if (i < 0)
+      return 0;
+    int keywordEnd = i;
+    i = skipSeparators(line, i);
+    boolean marked = hasPunctuation(line, keywordEnd, i);
+    int next = skipWord(line, i, "answer", "option");
+    if (next >= 0) {
+      i = skipSeparators(line, next);
+      marked = true;
+    }
+    if (i < line.length() && line.charAt(i) == '(')
+      i++;
+    if (i >= line.length())
+      return 0;
+    char letter = Character.toUpperCase(line.charAt(i));
+    if (letter < 'A' || letter >= 'A' + OPTIONS)
+      return 0;
+    // "Answer: Because ..." is not an answer letter
+    if (i + 1 < line.length() && Character.isLetter(line.charAt(i + 1)))
+      return 0;
+    if (!marked && !endsAfterLetter(line, i + 1))
+      return 0;
+    return letter;
+  }
+
+  private static boolean hasPunctuation(String line, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (":.-".indexOf(line.charAt(i)) >= 0)
+        return true;
+    }
+    return false;
+  }
+
+  // Nothing but a closing ")" or "." follows the letter
+  private static boolean endsAfterLetter(String line, int i) {
+    if (i < line.length() && ").".indexOf(line.charAt(i)) >= 0)
+      i++;
+    return i == line.length();
+  }
+
+  private static int skipWord(String line, int from, String... words) {
+    for (String word : words) {
+      if (line.regionMatches(true, from, word, 0, word.length()))
+        return from + word.length();
+    }
+    return -1;
+  }
+
+  private static int skipSeparators(String line, int i) {
+    while (i < line.length() && (Character.isWhitespace(line.charAt(i)) || ":.-".indexOf(line.charAt(i)) >= 0))
+      i++;
+    return i;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,289 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.PdfImportJobDTO;
+import com.skgdp.dto.PracticeQuestionDTO;
+import com.skgdp.entity.Topic;
+import com.skgdp.exception.ResourceConflictException;
+import com.skgdp.exception.ResourceNotFoundException;
+import com.skgdp.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Parses uploaded PDFs in the background so the upload request returns at
+ * once with a job id.
+ *
+ * Jobs run on a small fixed pool behind a bounded queue; once the queue is
+ * full, further uploads are refused instead of piling up. Progress is kept in
+ * memory and can be polled or streamed as server-sent events. Finished jobs
+ * and their parsed questions are dropped after the retention period.
+ */
+@Service
+@Slf4j
+public class PdfImportJobService {
+
+  public enum Status {
+    QUEUED, RUNNING, COMPLETED, FAILED
+  }
+
+  private final PdfQuestionParserService parser;
+  private final ExecutorService executor;
+  private final long retentionMillis;
+  private final long retryAfterSeconds;
+  private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+  public PdfImportJobService(
+      PdfQuestionParserService parser,
+      @Value("${skgdp.pdf.import.workers:2}") int workers,
+      @Value("${skgdp.pdf.import.queue-capacity:20}") int queueCapacity,
+      @Value("${skgdp.pdf.import.retention-ms:3600000}") long retentionMillis,
+      @Value("${skgdp.pdf.import.retry-after-seconds:30}") long retryAfterSeconds) {
+    this.parser = parser;
+    this.retentionMillis = retentionMillis;
+    this.retryAfterSeconds = retryAfterSeconds;
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), r -> {
+          Thread thread = new Thread(r, "pdf-import-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Copies the upload to a temp file, which outlives the request, and queues
+   * it for parsing.
+   */
+  public PdfImportJobDTO submit(MultipartFile file, Topic topic, String type) throws IOException {
+    Path pdf = Files.createTempFile("skgdp-import-", ".pdf");
+    ImportJob job = new ImportJob(UUID.randomUUID().toString(), topic.getId(), topic.getName(),
+        type, file.getOriginalFilename());
+    try {
+      file.transferTo(pdf);
+      jobs.put(job.id, job);
+      executor.execute(() -> run(job, pdf));
+    } catch (RejectedExecutionException e) {
+      jobs.remove(job.id);
+      Files.deleteIfExists(pdf);
+      throw new ServiceBusyException("Too many PDF imports are queued, please try again later", retryAfterSeconds);
+    } catch (IOException e) {
+      Files.deleteIfExists(pdf);
+      throw e;
+    }
+    log.info("Queued PDF import {} of {}", job.id, job.fileName);
+    return job.toDTO();
+  }
+
+  public PdfImportJobDTO getJob(String jobId) {
+    return find(jobId).toDTO();
+  }
+
+  /**
+   * Parsed questions of a completed job. Asking before the job has completed,
+   * or after it failed, is a conflict with the job's state.
+   */
+  public List<PracticeQuestionDTO> getResult(String jobId) {
+    ImportJob job = find(jobId);
+    if (job.status == Status.FAILED)
+      throw new ResourceConflictException("Import failed: " + job.error);
+    if (job.status != Status.COMPLETED)
+      throw new ResourceConflictException("Import is not complete yet");
+    return job.questions;
+  }
+
+  /**
+   * Streams the job's progress: the current state straight away, a
+   * "progress" event per parsed page range and a final "completed" or
+   * "failed" event, after which the stream ends.
+   */
+  public SseEmitter subscribe(String jobId) {
+    ImportJob job = find(jobId);
+    SseEmitter emitter = new SseEmitter();
+    synchronized (job) {
+      if (job.isFinished()) {
+        send(emitter, job.status.name().toLowerCase(), job.toDTO());
+        emitter.complete();
+        return emitter;
+      }
+      job.emitters.add(emitter);
+      emitter.onCompletion(() -> job.emitters.remove(emitter));
+      emitter.onTimeout(() -> job.emitters.remove(emitter));
+      send(emitter, "progress", job.toDTO());
+    }
+    return emitter;
+  }
+
+  @Scheduled(fixedDelayString = "${skgdp.pdf.import.sweep-interval-ms:60000}")
+  public void sweep() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(retentionMillis));
+    jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(cutoff));
+  }
+
+  private void run(ImportJob job, Path pdf) {
+    job.start();
+    publish(job, "progress");
+    try {
+      List<PracticeQuestionDTO> questions = new ArrayList<>();
+      Consumer<PracticeQuestionDTO> sink = question -> {
+        questions.add(question);
+        job.questionsFound.incrementAndGet();
+      };
+      PdfQuestionParserService.PageProgress pageProgress =
+          (pagesDone, totalPages) -> progress(job, pagesDone, totalPages);
+      if ("MCQ".equalsIgnoreCase(job.type))
+        parser.parseMCQsFromPdf(pdf, job.topicId, sink, pageProgress);
+      else
+        parser.parseCodingQuestionsFromPdf(pdf, job.topicId, sink, pageProgress);
+      job.complete(questions);
+      log.info("PDF import {} parsed {} questions", job.id, questions.size());
+    } catch (Exception e) {
+      log.error("PDF import {} failed: ", job.id, e);
+      job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+    } finally {
+      try {
+        Files.deleteIfExists(pdf);
+      } catch (IOException e) {
+        log.warn("Could not delete {}: {}", pdf, e.getMessage());
+      }
+    }
+    publish(job, job.status.name().toLowerCase());
+  }
+
+  private void progress(ImportJob job, int pagesDone, int totalPages) {
+    job.pagesDone = pagesDone;
+    job.totalPages = totalPages;
+    publish(job, "progress");
+  }
+
+  private void publish(ImportJob job, String event) {
+    synchronized (job) {
+      PdfImportJobDTO snapshot = job.toDTO();
+      for (SseEmitter emitter : job.emitters) {
+        if (!send(emitter, event, snapshot))
+          job.emitters.remove(emitter);
+        else if (job.isFinished())
+          emitter.complete();
+      }
+      if (job.isFinished())
+        job.emitters.clear();
+    }
+  }
+
+  private static boolean send(SseEmitter emitter, String event, PdfImportJobDTO snapshot) {
+    try {
+      emitter.send(SseEmitter.event().name(event).data(snapshot));
+      return true;
+    } catch (IOException | IllegalStateException e) {
+      // The client went away
+      return false;
+    }
+  }
+
+  private ImportJob find(String jobId) {
+    ImportJob job = jobs.get(jobId);
+    if (job == null)
+      throw new ResourceNotFoundException("Import job", "id", jobId);
+    return job;
+  }
+
+  /**
+   * A job and its progress. Fields are written by the worker and read by
+   * request threads; events are published under the job's monitor so a new
+   * subscriber cannot miss the final one.
+   */
+  private static class ImportJob {
+    private final String id;
+    private final String topicId;
+    private final String topicName;
+    private final String type;
+    private final String fileName;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicInteger questionsFound = new AtomicInteger();
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile int totalPages;
+    private volatile int pagesDone;
+    private volatile String error;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile List<PracticeQuestionDTO> questions;
+
+    ImportJob(String id, String topicId, String topicName, String type, String fileName) {
+      this.id = id;
+      this.topicId = topicId;
+      this.topicName = topicName;
+      this.type = type;
+      this.fileName = fileName;
+    }
+
+    void start() {
+      startedAt = LocalDateTime.now();
+      status = Status.RUNNING;
+    }
+
+    void complete(List<PracticeQuestionDTO> parsed) {
+      questions = List.copyOf(parsed);
+      finishedAt = LocalDateTime.now();
+      status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+      error = message;
+      finishedAt = LocalDateTime.now();
+      status = Status.FAILED;
+    }
+
+    boolean isFinished() {
+      return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    PdfImportJobDTO toDTO() {
+      return PdfImportJobDTO.builder()
+          .id(id)
+          .status(status.name())
+          .topicId(topicId)
+          .topicName(topicName)
+          .type(type)
+          .fileName(fileName)
+          .totalPages(totalPages)
+          .pagesDone(pagesDone)
+          .questionsFound(questionsFound.get())
+          .error(error)
+          .createdAt(createdAt)
+          .startedAt(startedAt)
+          .finishedAt(finishedAt)
+          .build();
+    }
+  }
+}
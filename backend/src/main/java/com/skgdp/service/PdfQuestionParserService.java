@@ -1,25 +1,60 @@
 package com.skgdp.service;
 
 import com.skgdp.dto.PracticeQuestionDTO;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PdfQuestionParserService {
 
+  private final int pagesPerChunk;
+  private final int threads;
+  private final ExecutorService executor;
+
+  public PdfQuestionParserService(
+      @Value("${skgdp.pdf.pages-per-chunk:10}") int pagesPerChunk,
+      @Value("${skgdp.pdf.parallelism:0}") int parallelism) {
+    this.pagesPerChunk = Math.max(1, pagesPerChunk);
+    this.threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), r -> {
+          Thread thread = new Thread(r, "pdf-extract-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
   /**
    * Parse MCQ questions from PDF file.
    * Expected formats:
@@ -37,273 +72,176 @@ public class PdfQuestionParserService {
    * d. Option D
    */
   public List<PracticeQuestionDTO> parseMCQsFromPdf(MultipartFile file, String topicId) throws IOException {
-    String text = extractTextFromPdf(file);
-    return parseMCQsFromText(text, topicId);
-  }
-
-  public String extractTextFromPdf(MultipartFile file) throws IOException {
-    try (PDDocument document = Loader.loadPDF(file.getBytes())) {
-      PDFTextStripper stripper = new PDFTextStripper();
-      return stripper.getText(document);
-    }
-  }
-
-  public List<PracticeQuestionDTO> parseMCQsFromText(String text, String topicId) {
     List<PracticeQuestionDTO> questions = new ArrayList<>();
-
-    // Clean up the text
-    text = text.replaceAll("\r\n", "\n").replaceAll("\r", "\n");
-
-    log.info("Parsing text of length: {}", text.length());
-    log.debug("Text content:\n{}", text.substring(0, Math.min(500, text.length())));
-
-    // Try pattern-based parsing first - looks for question numbers followed by
-    // options
-    questions = parseByQuestionNumber(text, topicId);
-
-    if (questions.isEmpty()) {
-      // Alternative simpler pattern - question blocks separated by blank lines
-      String[] blocks = text.split("\\n\\s*\\n");
-
-      for (String block : blocks) {
-        block = block.trim();
-        if (block.isEmpty())
-          continue;
-
-        PracticeQuestionDTO question = tryParseMCQBlock(block, topicId);
-        if (question != null) {
-          questions.add(question);
-        }
-      }
-    }
-
-    // If block parsing didn't work, try line-by-line parsing
-    if (questions.isEmpty()) {
-      questions = parseLineByLine(text, topicId);
-    }
-
+    withTempCopy(file, pdf -> parseMCQsFromPdf(pdf, topicId, questions::add));
     log.info("Parsed {} questions from PDF", questions.size());
     return questions;
   }
 
-  private List<PracticeQuestionDTO> parseByQuestionNumber(String text, String topicId) {
-    List<PracticeQuestionDTO> questions = new ArrayList<>();
-
-    // Split by question numbers like "1.", "2.", "Q1.", "Q2.", etc.
-    // Use lookahead to keep the delimiter
-    String[] parts = text.split("(?=(?:^|\\n)\\s*(?:Q|q)?\\s*\\d+\\s*[.):]\\s*)");
+  /**
+   * Streams the questions of a PDF on disk to the sink. Pages are stripped a
+   * range at a time and fed to the tokenizer, so memory use does not grow
+   * with the size of the document. Returns the number of questions.
+   */
+  public int parseMCQsFromPdf(Path pdf, String topicId, Consumer<PracticeQuestionDTO> sink) throws IOException {
+    return parseMCQsFromPdf(pdf, topicId, sink, PageProgress.NONE);
+  }
 
-    for (String part : parts) {
-      part = part.trim();
-      if (part.isEmpty() || part.length() < 20)
-        continue;
+  public int parseMCQsFromPdf(Path pdf, String topicId, Consumer<PracticeQuestionDTO> sink, PageProgress progress)
+      throws IOException {
+    McqTokenizer tokenizer = new McqTokenizer(topicId, sink);
+    forEachPageRange(pdf, tokenizer::feed, progress);
+    tokenizer.finish();
+    return tokenizer.getEmitted();
+  }
 
-      // Remove leading question number
-      String cleaned = part.replaceFirst("^(?:Q|q)?\\s*\\d+\\s*[.):]+\\s*", "");
+  /**
+   * Hands the text of an uploaded PDF to the consumer one page range at a
+   * time, so the whole text is never held at once.
+   */
+  public void extractTextFromPdf(MultipartFile file, Consumer<String> chunks) throws IOException {
+    withTempCopy(file, pdf -> forEachPageRange(pdf, chunks, PageProgress.NONE));
+  }
 
-      PracticeQuestionDTO question = tryParseMCQBlock(cleaned, topicId);
-      if (question != null) {
-        questions.add(question);
+  /**
+   * Hands the text of the document to the consumer one page range at a time,
+   * in page order. The file is read on demand and PDFBox keeps its scratch
+   * data in temp files rather than on the heap.
+   *
+   * Documents with more than one range are stripped in parallel, each range
+   * by a worker with its own document and stripper. The consumer still gets
+   * the ranges in order, so a question running across a range boundary is
+   * joined up by the tokenizer. At most two ranges per worker are in flight,
+   * which keeps memory bounded when the consumer falls behind.
+   */
+  void forEachPageRange(Path pdf, Consumer<String> chunks, PageProgress progress) throws IOException {
+    int pages;
+    try (PDDocument document = load(pdf)) {
+      pages = document.getNumberOfPages();
+      progress.update(0, pages);
+      if (threads == 1 || pages <= pagesPerChunk) {
+        PDFTextStripper stripper = new PDFTextStripper();
+        for (int first = 1; first <= pages; first += pagesPerChunk) {
+          int last = Math.min(pages, first + pagesPerChunk - 1);
+          chunks.accept(strip(document, stripper, first, last));
+          progress.update(last, pages);
+        }
+        return;
       }
     }
 
-    return questions;
-  }
-
-  private PracticeQuestionDTO tryParseMCQBlock(String block, String topicId) {
-    String[] lines = block.split("\\n");
-    if (lines.length < 2)
-      return null; // Need at least question + some options
-
-    StringBuilder questionText = new StringBuilder();
-    String optionA = null, optionB = null, optionC = null, optionD = null;
-    String answer = null;
-
-    for (String line : lines) {
-      line = line.trim();
-      if (line.isEmpty())
-        continue;
-
-      // Check for options - support multiple formats: A) A. A] (A) a)
-      if (line.matches("^\\(?[Aa][.)\\]:]\\)?\\s*.*")) {
-        optionA = line.replaceFirst("^\\(?[Aa][.)\\]:]\\)?\\s*", "").trim();
-      } else if (line.matches("^\\(?[Bb][.)\\]:]\\)?\\s*.*")) {
-        optionB = line.replaceFirst("^\\(?[Bb][.)\\]:]\\)?\\s*", "").trim();
-      } else if (line.matches("^\\(?[Cc][.)\\]:]\\)?\\s*.*")) {
-        optionC = line.replaceFirst("^\\(?[Cc][.)\\]:]\\)?\\s*", "").trim();
-      } else if (line.matches("^\\(?[Dd][.)\\]:]\\)?\\s*.*")) {
-        optionD = line.replaceFirst("^\\(?[Dd][.)\\]:]\\)?\\s*", "").trim();
-      } else if (line.matches("(?i)^(answer|ans|correct)[:\\s]*[a-d].*")) {
-        Matcher m = Pattern.compile("(?i)[a-d]").matcher(line);
-        if (m.find()) {
-          answer = m.group().toUpperCase();
-        }
-      } else if (optionA == null) {
-        // This is part of the question text
-        String cleaned = line.replaceFirst("^Q?\\d+[.)\\s]*", "").trim();
-        if (!cleaned.isEmpty()) {
-          if (questionText.length() > 0)
-            questionText.append(" ");
-          questionText.append(cleaned);
+    Deque<Future<String>> inFlight = new ArrayDeque<>();
+    Deque<Integer> lastPages = new ArrayDeque<>();
+    int next = 1;
+    try {
+      while (next <= pages || !inFlight.isEmpty()) {
+        while (next <= pages && inFlight.size() < threads * 2) {
+          int first = next;
+          int last = Math.min(pages, first + pagesPerChunk - 1);
+          inFlight.add(executor.submit(() -> extract(pdf, first, last)));
+          lastPages.add(last);
+          next = last + 1;
         }
+        chunks.accept(await(inFlight.poll()));
+        progress.update(lastPages.poll(), pages);
       }
+    } finally {
+      inFlight.forEach(future -> future.cancel(true));
     }
+  }
 
-    // Validate we have all required parts
-    if (questionText.length() == 0 || optionA == null || optionB == null ||
-        optionC == null || optionD == null) {
-      return null;
+  private static String extract(Path pdf, int first, int last) throws IOException {
+    try (PDDocument document = load(pdf)) {
+      return strip(document, new PDFTextStripper(), first, last);
     }
-
-    // Build the problem statement with options
-    String problemStatement = questionText.toString() + "\n" +
-        "A) " + optionA + "\n" +
-        "B) " + optionB + "\n" +
-        "C) " + optionC + "\n" +
-        "D) " + optionD;
-
-    return PracticeQuestionDTO.builder()
-        .topicId(topicId)
-        .title(questionText.toString().length() > 50
-            ? questionText.toString().substring(0, 47) + "..."
-            : questionText.toString())
-        .problemStatement(problemStatement)
-        .type("MCQ")
-        .difficulty("MEDIUM")
-        .solution(answer != null ? answer : "A") // Default to A if no answer provided
-        .active(true)
-        .build();
   }
 
-  private List<PracticeQuestionDTO> parseLineByLine(String text, String topicId) {
-    List<PracticeQuestionDTO> questions = new ArrayList<>();
-    String[] lines = text.split("\\n");
-
-    StringBuilder currentQuestion = new StringBuilder();
-    String optionA = null, optionB = null, optionC = null, optionD = null;
-    String answer = null;
-
-    for (int i = 0; i < lines.length; i++) {
-      String line = lines[i].trim();
-
-      // Check if this line starts a new question (has a question number)
-      boolean isNewQuestion = line.matches("^(?:Q|q)?\\s*\\d+\\s*[.):]+\\s*.*") && optionD != null;
-
-      if (line.isEmpty() || isNewQuestion) {
-        // End of a question block - try to create question
-        if (currentQuestion.length() > 0 && optionA != null && optionD != null) {
-          PracticeQuestionDTO q = createQuestion(
-              currentQuestion.toString(), optionA, optionB, optionC, optionD, answer, topicId);
-          if (q != null)
-            questions.add(q);
-        }
-        // Reset
-        currentQuestion = new StringBuilder();
-        optionA = optionB = optionC = optionD = answer = null;
+  private static String strip(PDDocument document, PDFTextStripper stripper, int first, int last)
+      throws IOException {
+    stripper.setStartPage(first);
+    stripper.setEndPage(last);
+    return stripper.getText(document);
+  }
 
-        // If this is a new question (not just blank line), process the question text
-        if (isNewQuestion) {
-          String cleaned = line.replaceFirst("^(?:Q|q)?\\s*\\d+\\s*[.):]+\\s*", "").trim();
-          if (!cleaned.isEmpty()) {
-            currentQuestion.append(cleaned);
-          }
-        }
-        continue;
-      }
+  private static PDDocument load(Path pdf) throws IOException {
+    return Loader.loadPDF(pdf.toFile(), IOUtils.createTempFileOnlyStreamCache());
+  }
 
-      // Support multiple option formats: A) A. A] (A) a) etc.
-      if (line.matches("^\\(?[Aa][.)\\]:]\\)?\\s*.*")) {
-        optionA = line.replaceFirst("^\\(?[Aa][.)\\]:]\\)?\\s*", "").trim();
-      } else if (line.matches("^\\(?[Bb][.)\\]:]\\)?\\s*.*")) {
-        optionB = line.replaceFirst("^\\(?[Bb][.)\\]:]\\)?\\s*", "").trim();
-      } else if (line.matches("^\\(?[Cc][.)\\]:]\\)?\\s*.*")) {
-        optionC = line.replaceFirst("^\\(?[Cc][.)\\]:]\\)?\\s*", "").trim();
-      } else if (line.matches("^\\(?[Dd][.)\\]:]\\)?\\s*.*")) {
-        optionD = line.replaceFirst("^\\(?[Dd][.)\\]:]\\)?\\s*", "").trim();
-      } else if (line.matches("(?i)^(answer|ans|correct)[:\\s]*[a-d].*")) {
-        Matcher m = Pattern.compile("(?i)[a-d]").matcher(line);
-        if (m.find())
-          answer = m.group().toUpperCase();
-      } else if (optionA == null) {
-        String cleaned = line.replaceFirst("^(?:Q|q)?\\s*\\d+[.)\\s]*", "").trim();
-        if (!cleaned.isEmpty()) {
-          if (currentQuestion.length() > 0)
-            currentQuestion.append(" ");
-          currentQuestion.append(cleaned);
-        }
-      }
+  private static String await(Future<String> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("PDF extraction interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io)
+        throw io;
+      throw new RuntimeException("PDF extraction failed: " + e.getCause().getMessage(), e.getCause());
     }
+  }
 
-    // Don't forget the last question
-    if (currentQuestion.length() > 0 && optionA != null && optionD != null) {
-      PracticeQuestionDTO q = createQuestion(
-          currentQuestion.toString(), optionA, optionB, optionC, optionD, answer, topicId);
-      if (q != null)
-        questions.add(q);
+  /**
+   * Runs the task on a temp file holding the upload instead of copying the
+   * upload into memory. The file is deleted afterwards.
+   */
+  private void withTempCopy(MultipartFile file, PdfTask task) throws IOException {
+    Path pdf = Files.createTempFile("skgdp-upload-", ".pdf");
+    try {
+      file.transferTo(pdf);
+      task.run(pdf);
+    } finally {
+      Files.deleteIfExists(pdf);
     }
-
-    return questions;
   }
 
-  private PracticeQuestionDTO createQuestion(String questionText, String optA, String optB,
-      String optC, String optD, String answer, String topicId) {
-    if (questionText == null || questionText.trim().isEmpty())
-      return null;
-    if (optA == null || optB == null || optC == null || optD == null)
-      return null;
+  public List<PracticeQuestionDTO> parseMCQsFromText(String text, String topicId) {
+    log.info("Parsing text of length: {}", text.length());
+    log.debug("Text content:\n{}", text.substring(0, Math.min(500, text.length())));
 
-    String problemStatement = questionText + "\n" +
-        "A) " + optA + "\n" +
-        "B) " + optB + "\n" +
-        "C) " + optC + "\n" +
-        "D) " + optD;
+    List<PracticeQuestionDTO> questions = new ArrayList<>();
+    McqTokenizer tokenizer = new McqTokenizer(topicId, questions::add);
+    tokenizer.feed(text);
+    tokenizer.finish();
 
-    return PracticeQuestionDTO.builder()
-        .topicId(topicId)
-        .title(questionText.length() > 50 ? questionText.substring(0, 47) + "..." : questionText)
-        .problemStatement(problemStatement)
-        .type("MCQ")
-        .difficulty("MEDIUM")
-        .solution(answer != null ? answer : "A")
-        .active(true)
-        .build();
+    log.info("Parsed {} questions from PDF", questions.size());
+    return questions;
   }
 
   /**
    * Parse plain text questions (non-MCQ) - coding problems, etc.
    */
   public List<PracticeQuestionDTO> parseCodingQuestionsFromPdf(MultipartFile file, String topicId) throws IOException {
-    String text = extractTextFromPdf(file);
     List<PracticeQuestionDTO> questions = new ArrayList<>();
+    withTempCopy(file, pdf -> parseCodingQuestionsFromPdf(pdf, topicId, questions::add, PageProgress.NONE));
+    return questions;
+  }
 
-    // Split by common delimiters
-    String[] blocks = text.split("(?=(?:Problem|Question|Q)\\s*\\d+[.:\\s])");
-
-    for (String block : blocks) {
-      block = block.trim();
-      if (block.isEmpty() || block.length() < 20)
-        continue;
-
-      // Extract title (first line or first sentence)
-      String[] lines = block.split("\\n", 2);
-      String title = lines[0].replaceFirst("^(?:Problem|Question|Q)\\s*\\d+[.:\\s]*", "").trim();
-      String content = lines.length > 1 ? lines[1].trim() : title;
+  /**
+   * Streams the problems of a PDF on disk to the sink, split as the page
+   * ranges arrive, so only the problem being read is buffered. Returns the
+   * number of problems.
+   */
+  public int parseCodingQuestionsFromPdf(Path pdf, String topicId, Consumer<PracticeQuestionDTO> sink,
+      PageProgress progress) throws IOException {
+    CodingQuestionSplitter splitter = new CodingQuestionSplitter(topicId, sink);
+    forEachPageRange(pdf, splitter::feed, progress);
+    splitter.finish();
+    return splitter.getEmitted();
+  }
 
-      if (title.length() > 50) {
-        title = title.substring(0, 47) + "...";
-      }
+  /**
+   * Told how many pages of the document have been parsed so far.
+   */
+  @FunctionalInterface
+  public interface PageProgress {
+    PageProgress NONE = (pagesDone, totalPages) -> {
+    };
 
-      questions.add(PracticeQuestionDTO.builder()
-          .topicId(topicId)
-          .title(title)
-          .problemStatement(block)
-          .type("Coding")
-          .difficulty("MEDIUM")
-          .solution("") // User needs to provide solution
-          .active(true)
-          .build());
-    }
+    void update(int pagesDone, int totalPages);
+  }
 
-    return questions;
+  @FunctionalInterface
+  private interface PdfTask {
+    void run(Path pdf) throws IOException;
   }
 }
@@ -0,0 +1,123 @@
+package com.skgdp.service;
+
+import com.skgdp.entity.PracticeQuestion;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces practice attempt counts in memory and writes them as periodic
+ * bulk {@code $inc} updates, one per question with pending counts.
+ *
+ * A flush subtracts only what it wrote, so attempts recorded while it runs
+ * stay pending for the next one, and counts whose update failed are retried.
+ * Counts still pending when the process dies are lost; the flush interval
+ * bounds how many.
+ */
+@Component
+@Slf4j
+public class PracticeAttemptCounter {
+
+  private final MongoTemplate mongoTemplate;
+  private final PracticeQuestionCatalog catalog;
+  private final boolean enabled;
+  private final Map<String, Counts> pending = new ConcurrentHashMap<>();
+
+  public PracticeAttemptCounter(
+      MongoTemplate mongoTemplate,
+      PracticeQuestionCatalog catalog,
+      @Value("${skgdp.practice.attempt-counter.enabled:false}") boolean enabled) {
+    this.mongoTemplate = mongoTemplate;
+    this.catalog = catalog;
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void record(String questionId, boolean success) {
+    Counts counts = pending.computeIfAbsent(questionId, k -> new Counts());
+    counts.attempts.increment();
+    if (success)
+      counts.successes.increment();
+  }
+
+  /**
+   * Attempts and successes recorded but not yet written.
+   */
+  public long[] pendingFor(String questionId) {
+    Counts counts = pending.get(questionId);
+    return counts == null ? new long[2] : new long[] { counts.attempts.sum(), counts.successes.sum() };
+  }
+
+  @Scheduled(fixedDelayString = "${skgdp.practice.attempt-counter.flush-interval-ms:1000}")
+  public synchronized void flush() {
+    if (!enabled || pending.isEmpty())
+      return;
+
+    List<String> ids = new ArrayList<>();
+    List<long[]> deltas = new ArrayList<>();
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PracticeQuestion.class);
+    pending.forEach((id, counts) -> {
+      long attempts = counts.attempts.sum();
+      long successes = counts.successes.sum();
+      if (attempts == 0 && successes == 0)
+        return;
+      ids.add(id);
+      deltas.add(new long[] { attempts, successes });
+      bulk.updateOne(new Query(Criteria.where("_id").is(ObjectId.isValid(id) ? new ObjectId(id) : id)),
+          new Update().inc("attemptCount", attempts).inc("successCount", successes));
+    });
+    if (ids.isEmpty())
+      return;
+
+    Set<Integer> failed = new HashSet<>();
+    try {
+      bulk.execute();
+    } catch (BulkOperationException e) {
+      e.getErrors().forEach(error -> failed.add(error.getIndex()));
+      log.warn("{} of {} attempt count updates failed, retrying next flush", failed.size(), ids.size());
+    } catch (RuntimeException e) {
+      log.warn("Attempt count flush failed, retrying next flush", e);
+      return;
+    }
+
+    for (int i = 0; i < ids.size(); i++) {
+      if (failed.contains(i))
+        continue;
+      Counts counts = pending.get(ids.get(i));
+      counts.attempts.add(-deltas.get(i)[0]);
+      counts.successes.add(-deltas.get(i)[1]);
+      // Written counts move from pending to the catalog's persisted counts
+      catalog.addCounts(ids.get(i), deltas.get(i)[0], deltas.get(i)[1]);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  private static class Counts {
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+  }
+}
@@ -0,0 +1,216 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.PracticeQuestionSummaryDTO;
+import com.skgdp.entity.Course;
+import com.skgdp.entity.PracticeQuestion;
+import com.skgdp.entity.Topic;
+import com.skgdp.repository.ReferenceResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory catalog of active practice questions as summary entries.
+ *
+ * The catalog is loaded with a projection that leaves out statements, hints,
+ * solutions and test cases. Saving or deleting a practice question updates
+ * its entry in place; saving a topic or course marks the catalog stale so
+ * the next read reloads it with the new names. Entries are ordered by id,
+ * which follows creation order like the collection's natural order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PracticeQuestionCatalog extends AbstractMongoEventListener<Object> {
+
+  private static final String[] SUMMARY_FIELDS = { "title", "description", "topic", "course", "difficulty",
+      "type", "tags", "timeLimit", "points", "createdBy", "createdAt", "active", "attemptCount",
+      "successCount" };
+
+  private final MongoTemplate mongoTemplate;
+  private final ReferenceResolver referenceResolver;
+
+  private volatile ConcurrentSkipListMap<String, PracticeQuestionSummaryDTO> entries;
+  private volatile boolean stale = true;
+  // Bumped whenever entries are added, removed or reloaded, not on counts
+  private final AtomicLong version = new AtomicLong();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    current();
+  }
+
+  public List<PracticeQuestionSummaryDTO> all() {
+    return new ArrayList<>(current().values());
+  }
+
+  /**
+   * Summaries of the given questions in the given order, skipping any that
+   * are not in the catalog.
+   */
+  public List<PracticeQuestionSummaryDTO> get(List<String> ids) {
+    ConcurrentSkipListMap<String, PracticeQuestionSummaryDTO> current = current();
+    List<PracticeQuestionSummaryDTO> found = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      PracticeQuestionSummaryDTO entry = current.get(id);
+      if (entry != null)
+        found.add(entry);
+    }
+    return found;
+  }
+
+  /**
+   * Summary of one question, or null when it is not in the catalog.
+   */
+  public PracticeQuestionSummaryDTO find(String id) {
+    return current().get(id);
+  }
+
+  public long getVersion() {
+    current();
+    return version.get();
+  }
+
+  /**
+   * Applies new attempt counts to an entry; counts change through atomic
+   * updates that do not publish save events. Entries hold persisted counts,
+   * without increments the attempt counter has not written yet.
+   */
+  public synchronized void updateCounts(String id, Integer attemptCount, Integer successCount) {
+    current().computeIfPresent(id, (k, entry) -> entry.toBuilder()
+        .attemptCount(attemptCount)
+        .successCount(successCount)
+        .build());
+  }
+
+  /**
+   * Adds increments that were just written to an entry's persisted counts.
+   */
+  public synchronized void addCounts(String id, long attempts, long successes) {
+    current().computeIfPresent(id, (k, entry) -> entry.toBuilder()
+        .attemptCount((int) (nullToZero(entry.getAttemptCount()) + attempts))
+        .successCount((int) (nullToZero(entry.getSuccessCount()) + successes))
+        .build());
+  }
+
+  private static int nullToZero(Integer value) {
+    return value != null ? value : 0;
+  }
+
+  @Override
+  public void onAfterSave(AfterSaveEvent<Object> event) {
+    Object source = event.getSource();
+    if (source instanceof PracticeQuestion question) {
+      put(question);
+    } else if (source instanceof Topic || source instanceof Course) {
+      stale = true;
+    }
+  }
+
+  @Override
+  public void onAfterDelete(AfterDeleteEvent<Object> event) {
+    Class<?> type = event.getType();
+    if (type == PracticeQuestion.class) {
+      Object id = event.getSource().get("_id");
+      if (id == null || id instanceof Document) {
+        // Deleted by some other query: reload
+        stale = true;
+      } else {
+        remove(id.toString());
+      }
+    } else if (type == Topic.class || type == Course.class) {
+      stale = true;
+    }
+  }
+
+  private synchronized void put(PracticeQuestion question) {
+    if (stale)
+      return;
+    version.incrementAndGet();
+    if (Boolean.FALSE.equals(question.getActive())) {
+      entries.remove(question.getId());
+      return;
+    }
+    List<PracticeQuestion> one = new ArrayList<>(List.of(question));
+    resolveReferences(one);
+    entries.put(question.getId(), toSummary(question));
+  }
+
+  private synchronized void remove(String id) {
+    if (!stale && entries.remove(id) != null)
+      version.incrementAndGet();
+  }
+
+  private ConcurrentSkipListMap<String, PracticeQuestionSummaryDTO> current() {
+    // stale is cleared before the first load publishes, so a reader that
+    // finds nothing yet waits for that load
+    if (stale || entries == null)
+      reload();
+    return entries;
+  }
+
+  private synchronized void reload() {
+    if (!stale && entries != null)
+      return;
+    // Clear first so a change that lands during the reload triggers another
+    stale = false;
+    try {
+      Query query = new Query(Criteria.where("active").ne(false));
+      query.fields().include(SUMMARY_FIELDS);
+      List<PracticeQuestion> questions = mongoTemplate.find(query, PracticeQuestion.class);
+      resolveReferences(questions);
+
+      ConcurrentSkipListMap<String, PracticeQuestionSummaryDTO> loaded = new ConcurrentSkipListMap<>();
+      for (PracticeQuestion question : questions) {
+        loaded.put(question.getId(), toSummary(question));
+      }
+      entries = loaded;
+      version.incrementAndGet();
+      log.info("Loaded practice question catalog with {} entries", loaded.size());
+    } catch (RuntimeException e) {
+      stale = true;
+      throw e;
+    }
+  }
+
+  private void resolveReferences(List<PracticeQuestion> questions) {
+    referenceResolver.resolve(questions, Topic.class, PracticeQuestion::getTopic, PracticeQuestion::setTopic);
+    referenceResolver.resolve(questions, Course.class, PracticeQuestion::getCourse, PracticeQuestion::setCourse);
+  }
+
+  private static PracticeQuestionSummaryDTO toSummary(PracticeQuestion question) {
+    return PracticeQuestionSummaryDTO.builder()
+        .id(question.getId())
+        .title(question.getTitle())
+        .description(question.getDescription())
+        .topicId(question.getTopic() != null ? question.getTopic().getId() : null)
+        .topicName(question.getTopic() != null ? question.getTopic().getName() : null)
+        .courseId(question.getCourse() != null ? question.getCourse().getId() : null)
+        .courseName(question.getCourse() != null ? question.getCourse().getTitle() : null)
+        .difficulty(question.getDifficulty() != null ? question.getDifficulty().name() : null)
+        .type(question.getType() != null ? question.getType().name() : null)
+        .tags(question.getTags())
+        .timeLimit(question.getTimeLimit())
+        .points(question.getPoints())
+        .createdBy(question.getCreatedBy())
+        .createdAt(question.getCreatedAt())
+        .active(question.getActive())
+        .attemptCount(question.getAttemptCount())
+        .successCount(question.getSuccessCount())
+        .build();
+  }
+}
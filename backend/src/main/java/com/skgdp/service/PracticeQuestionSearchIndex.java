@@ -0,0 +1,343 @@
+package com.skgdp.service;
+
+import com.skgdp.entity.PracticeQuestion;
+import com.skgdp.entity.Topic;
+import com.skgdp.entity.Course;
+import com.skgdp.repository.ReferenceResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over active practice questions.
+ *
+ * Every question gets a dense ordinal, and every indexed key (a text term of
+ * the title, description or statement, a tag, the difficulty, type, topic and
+ * course) maps to a bitmap of the ordinals that have it. A query intersects
+ * the bitmaps of its clauses and facet counts are intersection cardinalities,
+ * so neither touches the documents. Saves and deletes update single questions;
+ * the ordinals of removed questions are only reclaimed by a full reload.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PracticeQuestionSearchIndex extends AbstractMongoEventListener<Object> {
+
+  public static final String TERM = "term";
+  public static final String TAG = "tag";
+  public static final String DIFFICULTY = "difficulty";
+  public static final String TYPE = "type";
+  public static final String TOPIC = "topic";
+  public static final String COURSE = "course";
+
+  private static final String[] INDEXED_FIELDS = { "title", "description", "problemStatement", "tags",
+      "difficulty", "type", "topic", "course", "active" };
+  private static final int MIN_TERM_LENGTH = 2;
+
+  private final MongoTemplate mongoTemplate;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // All state below is guarded by lock
+  private final Map<String, Integer> ordinals = new HashMap<>();
+  private final List<String> ids = new ArrayList<>();
+  private final List<Set<String>> keysByOrdinal = new ArrayList<>();
+  private final TreeMap<String, BitSet> postings = new TreeMap<>();
+  private final BitSet live = new BitSet();
+  private volatile boolean stale = true;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    ensureLoaded();
+  }
+
+  /**
+   * Questions matching every clause: the total, the ids of one window in
+   * ordinal order and, for each facet asked for, the counts per value among
+   * the matches, largest first. Text terms must all match, the last one as a
+   * prefix; within each facet any of the given values matches. Empty or null
+   * clauses are ignored.
+   *
+   * Everything is read under one lock, since a reload reassigns ordinals and
+   * a bitmap from before it would map to the wrong questions.
+   */
+  public Result search(String text, Map<String, ? extends Collection<String>> filters,
+      Collection<String> countFacets, int offset, int limit) {
+    ensureLoaded();
+    lock.readLock().lock();
+    try {
+      // Unfiltered counts are plain bitmap cardinalities
+      BitSet matches = isFiltered(text, filters) ? match(text, filters) : null;
+      BitSet window = matches != null ? matches : live;
+      Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+      for (String facet : countFacets) {
+        counts.put(facet, facetCounts(facet, matches));
+      }
+      return new Result(window.cardinality(), idsOf(window, offset, limit), counts);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static boolean isFiltered(String text, Map<String, ? extends Collection<String>> filters) {
+    if (text != null && !text.isBlank())
+      return true;
+    return filters.values().stream().anyMatch(values -> values != null && !values.isEmpty());
+  }
+
+  // The helpers below expect the read lock to be held
+
+  private BitSet match(String text, Map<String, ? extends Collection<String>> facets) {
+    BitSet result = (BitSet) live.clone();
+    List<String> terms = new ArrayList<>(tokenize(text));
+    for (int i = 0; i < terms.size() && !result.isEmpty(); i++) {
+      result.and(i == terms.size() - 1 ? prefixPosting(TERM, terms.get(i)) : posting(TERM, terms.get(i)));
+    }
+    for (Map.Entry<String, ? extends Collection<String>> facet : facets.entrySet()) {
+      if (facet.getValue() == null || facet.getValue().isEmpty())
+        continue;
+      BitSet any = new BitSet();
+      for (String value : facet.getValue()) {
+        any.or(posting(facet.getKey(), normalize(facet.getKey(), value)));
+      }
+      result.and(any);
+    }
+    return result;
+  }
+
+  private List<String> idsOf(BitSet matches, int offset, int limit) {
+    List<String> page = new ArrayList<>(Math.max(0, Math.min(limit, matches.cardinality())));
+    int skipped = 0;
+    for (int i = matches.nextSetBit(0); i >= 0 && page.size() < limit; i = matches.nextSetBit(i + 1)) {
+      if (skipped++ >= offset)
+        page.add(ids.get(i));
+    }
+    return page;
+  }
+
+  /**
+   * With no matches given, counts over every indexed question, which are just
+   * the posting cardinalities since removed questions are cleared from them.
+   */
+  private Map<String, Integer> facetCounts(String facet, BitSet matches) {
+    String prefix = facet + ':';
+    List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+    for (Map.Entry<String, BitSet> entry : postings.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()) {
+      int count;
+      if (matches == null) {
+        count = entry.getValue().cardinality();
+      } else {
+        BitSet both = (BitSet) entry.getValue().clone();
+        both.and(matches);
+        count = both.cardinality();
+      }
+      if (count > 0)
+        counts.add(Map.entry(entry.getKey().substring(prefix.length()), count));
+    }
+    counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+    Map<String, Integer> result = new LinkedHashMap<>();
+    counts.forEach(e -> result.put(e.getKey(), e.getValue()));
+    return result;
+  }
+
+  @Override
+  public void onAfterSave(AfterSaveEvent<Object> event) {
+    if (event.getSource() instanceof PracticeQuestion question) {
+      lock.writeLock().lock();
+      try {
+        // A stale index picks the change up when it is reloaded
+        if (stale)
+          return;
+        if (Boolean.FALSE.equals(question.getActive()))
+          remove(question.getId());
+        else
+          put(question.getId(), keysOf(question));
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  @Override
+  public void onAfterDelete(AfterDeleteEvent<Object> event) {
+    Class<?> type = event.getType();
+    if (type != PracticeQuestion.class)
+      return;
+    Object id = event.getSource().get("_id");
+    if (id == null || id instanceof Document) {
+      // Deleted by some other query: reload
+      stale = true;
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      remove(id.toString());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void ensureLoaded() {
+    if (stale)
+      reload();
+  }
+
+  private void reload() {
+    lock.writeLock().lock();
+    try {
+      if (!stale)
+        return;
+      // Reading under the write lock keeps concurrent saves from being
+      // applied to the old index and then lost
+      Query query = new Query(Criteria.where("active").ne(false));
+      query.fields().include(INDEXED_FIELDS);
+      List<PracticeQuestion> questions = mongoTemplate.find(query, PracticeQuestion.class);
+
+      ordinals.clear();
+      ids.clear();
+      keysByOrdinal.clear();
+      postings.clear();
+      live.clear();
+      for (PracticeQuestion question : questions) {
+        put(question.getId(), keysOf(question));
+      }
+      stale = false;
+      log.info("Indexed {} practice questions under {} keys", ids.size(), postings.size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void put(String id, Set<String> keys) {
+    Integer ordinal = ordinals.get(id);
+    if (ordinal == null) {
+      ordinal = ids.size();
+      ordinals.put(id, ordinal);
+      ids.add(id);
+      keysByOrdinal.add(Set.of());
+    }
+    clearPostings(ordinal);
+    for (String key : keys) {
+      postings.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+    }
+    keysByOrdinal.set(ordinal, keys);
+    live.set(ordinal);
+  }
+
+  private void remove(String id) {
+    Integer ordinal = ordinals.get(id);
+    if (ordinal == null)
+      return;
+    clearPostings(ordinal);
+    keysByOrdinal.set(ordinal, Set.of());
+    live.clear(ordinal);
+  }
+
+  private void clearPostings(int ordinal) {
+    for (String key : keysByOrdinal.get(ordinal)) {
+      BitSet posting = postings.get(key);
+      if (posting == null)
+        continue;
+      posting.clear(ordinal);
+      if (posting.isEmpty())
+        postings.remove(key);
+    }
+  }
+
+  private BitSet posting(String facet, String value) {
+    BitSet posting = postings.get(facet + ':' + value);
+    return posting != null ? posting : new BitSet();
+  }
+
+  private BitSet prefixPosting(String facet, String prefix) {
+    String key = facet + ':' + prefix;
+    SortedMap<String, BitSet> matches = postings.subMap(key, key + Character.MAX_VALUE);
+    BitSet any = new BitSet();
+    matches.values().forEach(any::or);
+    return any;
+  }
+
+  private static Set<String> keysOf(PracticeQuestion question) {
+    Set<String> keys = new LinkedHashSet<>();
+    for (String text : new String[] { question.getTitle(), question.getDescription(), question.getProblemStatement() }) {
+      for (String term : tokenize(text)) {
+        keys.add(TERM + ':' + term);
+      }
+    }
+    if (question.getTags() != null) {
+      for (String tag : question.getTags()) {
+        if (tag != null && !tag.isBlank())
+          keys.add(TAG + ':' + normalize(TAG, tag));
+      }
+    }
+    if (question.getDifficulty() != null)
+      keys.add(DIFFICULTY + ':' + question.getDifficulty().name());
+    if (question.getType() != null)
+      keys.add(TYPE + ':' + question.getType().name());
+    String topicId = ReferenceResolver.idOf(question.getTopic(), Topic::getId);
+    if (topicId != null)
+      keys.add(TOPIC + ':' + topicId);
+    String courseId = ReferenceResolver.idOf(question.getCourse(), Course::getId);
+    if (courseId != null)
+      keys.add(COURSE + ':' + courseId);
+    return Set.copyOf(keys);
+  }
+
+  private static String normalize(String facet, String value) {
+    return switch (facet) {
+      case TAG -> value.trim().toLowerCase(Locale.ROOT);
+      case DIFFICULTY, TYPE -> value.trim().toUpperCase(Locale.ROOT);
+      default -> value.trim();
+    };
+  }
+
+  /**
+   * Lower-cased runs of letters and digits, deduplicated, in order.
+   */
+  static Set<String> tokenize(String text) {
+    Set<String> terms = new LinkedHashSet<>();
+    if (text == null)
+      return terms;
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        if (i - start >= MIN_TERM_LENGTH)
+          terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return terms;
+  }
+
+  /**
+   * One consistent answer of {@link #search}.
+   */
+  public record Result(int total, List<String> ids, Map<String, Map<String, Integer>> facets) {
+  }
+}
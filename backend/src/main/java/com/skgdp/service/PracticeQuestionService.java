@@ -1,18 +1,36 @@
 package com.skgdp.service;
 
+import com.skgdp.dto.PageDTO;
+import com.skgdp.dto.PageRequestDTO;
 import com.skgdp.dto.PracticeQuestionDTO;
+import com.skgdp.dto.PracticeQuestionSummaryDTO;
+import com.skgdp.dto.PracticeSearchResultDTO;
 import com.skgdp.entity.Course;
 import com.skgdp.entity.PracticeQuestion;
 import com.skgdp.entity.Topic;
 import com.skgdp.repository.CourseRepository;
+import com.skgdp.repository.KeysetPager;
 import com.skgdp.repository.PracticeQuestionRepository;
+import com.skgdp.repository.ReferenceResolver;
 import com.skgdp.repository.TopicRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,15 +40,107 @@ public class PracticeQuestionService {
   private final PracticeQuestionRepository practiceQuestionRepository;
   private final TopicRepository topicRepository;
   private final CourseRepository courseRepository;
+  private final ReferenceResolver referenceResolver;
+  private final KeysetPager keysetPager;
+  private final MongoTemplate mongoTemplate;
+  private final PracticeAttemptCounter attemptCounter;
+  private final PracticeQuestionCatalog catalog;
+  private final PracticeQuestionSearchIndex searchIndex;
+  private final AdaptiveQuestionSelector adaptiveSelector;
+  private final ApplicationEventPublisher eventPublisher;
 
-  public List<PracticeQuestionDTO> getAllQuestions() {
-    // Use findAll() and filter in Java since @Builder.Default may not set
-    // active=true
-    return practiceQuestionRepository.findAll()
-        .stream()
-        .filter(q -> q.getActive() == null || q.getActive()) // Include if active is null or true
-        .map(this::toDTO)
-        .collect(Collectors.toList());
+  /**
+   * Summaries of all active questions, served from the catalog. Full
+   * documents, with solutions and test cases, come from getQuestionById.
+   */
+  public List<PracticeQuestionSummaryDTO> getAllQuestions() {
+    return catalog.all();
+  }
+
+  /**
+   * One page of active questions matching the optional filters, newest first
+   * by default.
+   */
+  public PageDTO<PracticeQuestionDTO> getQuestionPage(String topicId, String courseId, String difficulty,
+      String type, String createdBy, PageRequestDTO page) {
+    List<Criteria> filters = new ArrayList<>();
+    filters.add(Criteria.where("active").ne(false));
+    if (topicId != null)
+      filters.add(ReferenceResolver.refersTo("topic", topicId));
+    if (courseId != null)
+      filters.add(ReferenceResolver.refersTo("course", courseId));
+    if (difficulty != null)
+      filters.add(Criteria.where("difficulty").is(PracticeQuestion.DifficultyLevel.valueOf(difficulty.toUpperCase()).name()));
+    if (type != null)
+      filters.add(Criteria.where("type").is(PracticeQuestion.QuestionType.valueOf(type.toUpperCase()).name()));
+    if (createdBy != null)
+      filters.add(Criteria.where("createdBy").is(createdBy));
+    return keysetPager.page(PracticeQuestion.class, filters, page, "-createdAt", Set.of("createdAt"))
+        .mapItems(this::toDTOs);
+  }
+
+  /**
+   * Full-text and faceted search over active questions, answered from the
+   * in-memory index. Facet counts cover all matches, not just the window.
+   */
+  public PracticeSearchResultDTO search(String text, List<String> tags, List<String> difficulties,
+      List<String> types, List<String> topicIds, int offset, int limit) {
+    Map<String, List<String>> facets = new LinkedHashMap<>();
+    facets.put(PracticeQuestionSearchIndex.TAG, tags);
+    facets.put(PracticeQuestionSearchIndex.DIFFICULTY, difficulties);
+    facets.put(PracticeQuestionSearchIndex.TYPE, types);
+    facets.put(PracticeQuestionSearchIndex.TOPIC, topicIds);
+    PracticeQuestionSearchIndex.Result result = searchIndex.search(text, facets, facets.keySet(),
+        Math.max(0, offset), Math.max(1, Math.min(limit, 500)));
+    return PracticeSearchResultDTO.builder()
+        .total(result.total())
+        .items(catalog.get(result.ids()))
+        .facets(result.facets())
+        .build();
+  }
+
+  /**
+   * Counts of active questions per difficulty, type, topic, course and tag,
+   * optionally narrowed by the same clauses as search. Every difficulty and
+   * type is listed, with zero counts where no question has it.
+   */
+  public Map<String, Map<String, Integer>> getFacets(String text, List<String> tags, List<String> difficulties,
+      List<String> types, List<String> topicIds, List<String> courseIds) {
+    Map<String, List<String>> filters = new LinkedHashMap<>();
+    filters.put(PracticeQuestionSearchIndex.TAG, tags);
+    filters.put(PracticeQuestionSearchIndex.DIFFICULTY, difficulties);
+    filters.put(PracticeQuestionSearchIndex.TYPE, types);
+    filters.put(PracticeQuestionSearchIndex.TOPIC, topicIds);
+    filters.put(PracticeQuestionSearchIndex.COURSE, courseIds);
+    Map<String, Map<String, Integer>> counts = searchIndex.search(text, filters, List.of(
+        PracticeQuestionSearchIndex.DIFFICULTY, PracticeQuestionSearchIndex.TYPE, PracticeQuestionSearchIndex.TOPIC,
+        PracticeQuestionSearchIndex.COURSE, PracticeQuestionSearchIndex.TAG), 0, 0).facets();
+
+    Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+    facets.put(PracticeQuestionSearchIndex.DIFFICULTY, withAll(PracticeQuestion.DifficultyLevel.values(),
+        counts.get(PracticeQuestionSearchIndex.DIFFICULTY)));
+    facets.put(PracticeQuestionSearchIndex.TYPE, withAll(PracticeQuestion.QuestionType.values(),
+        counts.get(PracticeQuestionSearchIndex.TYPE)));
+    facets.put(PracticeQuestionSearchIndex.TOPIC, counts.get(PracticeQuestionSearchIndex.TOPIC));
+    facets.put(PracticeQuestionSearchIndex.COURSE, counts.get(PracticeQuestionSearchIndex.COURSE));
+    facets.put(PracticeQuestionSearchIndex.TAG, counts.get(PracticeQuestionSearchIndex.TAG));
+    return facets;
+  }
+
+  private static Map<String, Integer> withAll(Enum<?>[] values, Map<String, Integer> counts) {
+    Map<String, Integer> all = new LinkedHashMap<>();
+    for (Enum<?> value : values) {
+      all.put(value.name(), counts.getOrDefault(value.name(), 0));
+    }
+    return all;
+  }
+
+  /**
+   * The next questions a student should practice, favouring their weakest
+   * topics at a difficulty close to their level there.
+   */
+  public List<PracticeQuestionSummaryDTO> getNextQuestions(String studentId, int count) {
+    return adaptiveSelector.select(studentId, Math.max(1, Math.min(count, 100)));
   }
 
   public Optional<PracticeQuestionDTO> getQuestionById(String id) {
@@ -39,32 +149,25 @@ public class PracticeQuestionService {
   }
 
   public List<PracticeQuestionDTO> getQuestionsByTopic(String topicId) {
-    return practiceQuestionRepository.findByTopicId(topicId)
-        .stream()
-        .map(this::toDTO)
-        .collect(Collectors.toList());
+    return toDTOs(practiceQuestionRepository.findByTopicId(topicId));
   }
 
   public List<PracticeQuestionDTO> getQuestionsByCourse(String courseId) {
-    return practiceQuestionRepository.findByCourseId(courseId)
-        .stream()
-        .map(this::toDTO)
-        .collect(Collectors.toList());
+    return toDTOs(practiceQuestionRepository.findByCourseId(courseId));
   }
 
   public List<PracticeQuestionDTO> getQuestionsByDifficulty(String difficulty) {
     PracticeQuestion.DifficultyLevel level = PracticeQuestion.DifficultyLevel.valueOf(difficulty.toUpperCase());
-    return practiceQuestionRepository.findByDifficultyAndActiveTrue(level)
-        .stream()
-        .map(this::toDTO)
-        .collect(Collectors.toList());
+    return toDTOs(practiceQuestionRepository.findByDifficultyAndActiveTrue(level));
+  }
+
+  public List<PracticeQuestionDTO> getQuestionsByType(String type) {
+    PracticeQuestion.QuestionType questionType = PracticeQuestion.QuestionType.valueOf(type.toUpperCase());
+    return toDTOs(practiceQuestionRepository.findByTypeAndActiveTrue(questionType));
   }
 
   public List<PracticeQuestionDTO> getQuestionsByCreator(String createdBy) {
-    return practiceQuestionRepository.findByCreatedBy(createdBy)
-        .stream()
-        .map(this::toDTO)
-        .collect(Collectors.toList());
+    return toDTOs(practiceQuestionRepository.findByCreatedBy(createdBy));
   }
 
   public PracticeQuestionDTO createQuestion(PracticeQuestionDTO dto) {
@@ -79,25 +182,36 @@ public class PracticeQuestionService {
     return toDTO(saved);
   }
 
+  /**
+   * Sets only the fields present in the DTO, so attempt counts incremented
+   * meanwhile are not overwritten.
+   */
   public Optional<PracticeQuestionDTO> updateQuestion(String id, PracticeQuestionDTO dto) {
-    return practiceQuestionRepository.findById(id)
-        .map(existing -> {
-          updateEntityFromDTO(existing, dto);
-          existing.setUpdatedAt(LocalDateTime.now());
-          PracticeQuestion saved = practiceQuestionRepository.save(existing);
-          return toDTO(saved);
-        });
+    Update update = toUpdate(dto).set("updatedAt", LocalDateTime.now());
+    return modify(id, update).map(this::toDTO);
   }
 
   public boolean deleteQuestion(String id) {
-    return practiceQuestionRepository.findById(id)
-        .map(question -> {
-          question.setActive(false);
-          question.setUpdatedAt(LocalDateTime.now());
-          practiceQuestionRepository.save(question);
-          return true;
-        })
-        .orElse(false);
+    Update update = new Update()
+        .set("active", false)
+        .set("updatedAt", LocalDateTime.now());
+    return modify(id, update).isPresent();
+  }
+
+  /**
+   * Applies a partial update and publishes the updated question the way a
+   * save would, so the catalog and search index pick it up.
+   */
+  private Optional<PracticeQuestion> modify(String id, Update update) {
+    PracticeQuestion updated = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(id)), update,
+        FindAndModifyOptions.options().returnNew(true), PracticeQuestion.class);
+    if (updated == null)
+      return Optional.empty();
+    Document document = new Document();
+    mongoTemplate.getConverter().write(updated, document);
+    eventPublisher.publishEvent(new AfterSaveEvent<>(updated, document,
+        mongoTemplate.getCollectionName(PracticeQuestion.class)));
+    return Optional.of(updated);
   }
 
   public boolean hardDeleteQuestion(String id) {
@@ -108,23 +222,86 @@ public class PracticeQuestionService {
     return false;
   }
 
+  /**
+   * Counts an attempt with an atomic server-side increment, so concurrent
+   * attempts are never lost. With the attempt counter enabled the increment is
+   * coalesced in memory and the returned counts include what is still pending.
+   */
   public PracticeQuestionDTO recordAttempt(String id, boolean success) {
-    return practiceQuestionRepository.findById(id)
-        .map(question -> {
-          question.setAttemptCount(question.getAttemptCount() + 1);
-          if (success) {
-            question.setSuccessCount(question.getSuccessCount() + 1);
-          }
-          PracticeQuestion saved = practiceQuestionRepository.save(question);
-          return toDTO(saved);
-        })
-        .orElse(null);
+    if (attemptCounter.isEnabled()) {
+      // Answered from the catalog's persisted counts plus the pending ones,
+      // so the hot path does not read the question at all
+      PracticeQuestionSummaryDTO entry = catalog.find(id);
+      if (entry != null) {
+        attemptCounter.record(id, success);
+        return withPendingCounts(entry, attemptCounter.pendingFor(id));
+      }
+      // Inactive questions are not in the catalog
+      return practiceQuestionRepository.findById(id)
+          .map(question -> {
+            attemptCounter.record(id, success);
+            long[] pendingCounts = attemptCounter.pendingFor(id);
+            PracticeQuestionDTO dto = toDTO(question);
+            dto.setAttemptCount(nullToZero(question.getAttemptCount()) + (int) pendingCounts[0]);
+            dto.setSuccessCount(nullToZero(question.getSuccessCount()) + (int) pendingCounts[1]);
+            return dto;
+          })
+          .orElse(null);
+    }
+
+    Query query = new Query(Criteria.where("id").is(id));
+    Update update = new Update().inc("attemptCount", 1).inc("successCount", success ? 1 : 0);
+    PracticeQuestion updated = mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(true), PracticeQuestion.class);
+    if (updated == null)
+      return null;
+    catalog.updateCounts(id, updated.getAttemptCount(), updated.getSuccessCount());
+    return toDTO(updated);
+  }
+
+  /**
+   * The summary fields of a question with its attempt counts, as returned
+   * for an attempt; statements, hints and solutions are left out.
+   */
+  private static PracticeQuestionDTO withPendingCounts(PracticeQuestionSummaryDTO entry, long[] pendingCounts) {
+    return PracticeQuestionDTO.builder()
+        .id(entry.getId())
+        .title(entry.getTitle())
+        .description(entry.getDescription())
+        .topicId(entry.getTopicId())
+        .topicName(entry.getTopicName())
+        .courseId(entry.getCourseId())
+        .courseName(entry.getCourseName())
+        .difficulty(entry.getDifficulty())
+        .type(entry.getType())
+        .tags(entry.getTags())
+        .timeLimit(entry.getTimeLimit())
+        .points(entry.getPoints())
+        .createdBy(entry.getCreatedBy())
+        .createdAt(entry.getCreatedAt())
+        .active(entry.getActive())
+        .attemptCount(nullToZero(entry.getAttemptCount()) + (int) pendingCounts[0])
+        .successCount(nullToZero(entry.getSuccessCount()) + (int) pendingCounts[1])
+        .build();
+  }
+
+  private static int nullToZero(Integer value) {
+    return value != null ? value : 0;
   }
 
   public long getTotalCount() {
     return practiceQuestionRepository.countByActiveTrue();
   }
 
+  private List<PracticeQuestionDTO> toDTOs(List<PracticeQuestion> questions) {
+    // Topics and courses are loaded with one query each, not per question
+    referenceResolver.resolve(questions, Topic.class, PracticeQuestion::getTopic, PracticeQuestion::setTopic);
+    referenceResolver.resolve(questions, Course.class, PracticeQuestion::getCourse, PracticeQuestion::setCourse);
+    return questions.stream()
+        .map(this::toDTO)
+        .collect(Collectors.toList());
+  }
+
   private PracticeQuestionDTO toDTO(PracticeQuestion entity) {
     PracticeQuestionDTO dto = PracticeQuestionDTO.builder()
         .id(entity.getId())
@@ -211,44 +388,45 @@ public class PracticeQuestionService {
     return entity;
   }
 
-  private void updateEntityFromDTO(PracticeQuestion entity, PracticeQuestionDTO dto) {
+  private Update toUpdate(PracticeQuestionDTO dto) {
+    Update update = new Update();
     if (dto.getTitle() != null)
-      entity.setTitle(dto.getTitle());
+      update.set("title", dto.getTitle());
     if (dto.getDescription() != null)
-      entity.setDescription(dto.getDescription());
+      update.set("description", dto.getDescription());
     if (dto.getDifficulty() != null) {
-      entity.setDifficulty(PracticeQuestion.DifficultyLevel.valueOf(dto.getDifficulty().toUpperCase()));
+      update.set("difficulty", PracticeQuestion.DifficultyLevel.valueOf(dto.getDifficulty().toUpperCase()));
     }
     if (dto.getType() != null) {
-      entity.setType(PracticeQuestion.QuestionType.valueOf(dto.getType().toUpperCase()));
+      update.set("type", PracticeQuestion.QuestionType.valueOf(dto.getType().toUpperCase()));
     }
     if (dto.getProblemStatement() != null)
-      entity.setProblemStatement(dto.getProblemStatement());
+      update.set("problemStatement", dto.getProblemStatement());
     if (dto.getHints() != null)
-      entity.setHints(dto.getHints());
+      update.set("hints", dto.getHints());
     if (dto.getSolution() != null)
-      entity.setSolution(dto.getSolution());
+      update.set("solution", dto.getSolution());
     if (dto.getSolutionExplanation() != null)
-      entity.setSolutionExplanation(dto.getSolutionExplanation());
+      update.set("solutionExplanation", dto.getSolutionExplanation());
     if (dto.getTags() != null)
-      entity.setTags(dto.getTags());
+      update.set("tags", dto.getTags());
     if (dto.getTimeLimit() != null)
-      entity.setTimeLimit(dto.getTimeLimit());
+      update.set("timeLimit", dto.getTimeLimit());
     if (dto.getPoints() != null)
-      entity.setPoints(dto.getPoints());
+      update.set("points", dto.getPoints());
 
     if (dto.getTopicId() != null && !dto.getTopicId().isEmpty()) {
       topicRepository.findById(dto.getTopicId())
-          .ifPresent(entity::setTopic);
+          .ifPresent(topic -> update.set("topic", topic));
     }
 
     if (dto.getCourseId() != null && !dto.getCourseId().isEmpty()) {
       courseRepository.findById(dto.getCourseId())
-          .ifPresent(entity::setCourse);
+          .ifPresent(course -> update.set("course", course));
     }
 
     if (dto.getTestCases() != null) {
-      entity.setTestCases(dto.getTestCases().stream()
+      update.set("testCases", dto.getTestCases().stream()
           .map(tc -> PracticeQuestion.TestCase.builder()
               .input(tc.getInput())
               .expectedOutput(tc.getExpectedOutput())
@@ -256,5 +434,6 @@ public class PracticeQuestionService {
               .build())
           .collect(Collectors.toList()));
     }
+    return update;
   }
 }
@@ -0,0 +1,148 @@
+package com.skgdp.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.skgdp.dto.PracticeQuestionDTO;
+import com.skgdp.dto.QuestionImportResultDTO;
+import com.skgdp.entity.Question;
+import com.skgdp.entity.Topic;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Saves reviewed PDF and text imports into a topic's question bank.
+ *
+ * The batch is converted in one pass and written with unordered bulk inserts
+ * of up to INSERT_CHUNK questions, so a large import takes a few round trips.
+ * A question that cannot be converted or written is reported by its position
+ * in the batch and does not stop the others.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionImportService {
+
+  private static final int INSERT_CHUNK = 500;
+  private static final int OPTIONS = 4;
+
+  private final MongoTemplate mongoTemplate;
+  private final AnswerKeyCache answerKeyCache;
+
+  public QuestionImportResultDTO saveAll(Topic topic, List<PracticeQuestionDTO> questions) {
+    List<QuestionImportResultDTO.Failure> failures = new ArrayList<>();
+    List<Question> converted = new ArrayList<>(questions.size());
+    List<Integer> positions = new ArrayList<>(questions.size());
+    for (int i = 0; i < questions.size(); i++) {
+      try {
+        converted.add(toQuestion(topic, questions.get(i)));
+        positions.add(i);
+      } catch (RuntimeException e) {
+        failures.add(new QuestionImportResultDTO.Failure(i, e.getMessage()));
+      }
+    }
+
+    int saved = 0;
+    for (int start = 0; start < converted.size(); start += INSERT_CHUNK) {
+      List<Question> chunk = converted.subList(start, Math.min(converted.size(), start + INSERT_CHUNK));
+      try {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Question.class)
+            .insert(chunk)
+            .execute();
+        saved += chunk.size();
+      } catch (BulkOperationException e) {
+        for (BulkWriteError error : e.getErrors()) {
+          failures.add(new QuestionImportResultDTO.Failure(positions.get(start + error.getIndex()), error.getMessage()));
+        }
+        saved += chunk.size() - e.getErrors().size();
+      } catch (DataAccessException e) {
+        log.error("Failed to insert {} imported questions: ", chunk.size(), e);
+        for (int i = 0; i < chunk.size(); i++) {
+          failures.add(new QuestionImportResultDTO.Failure(positions.get(start + i), e.getMessage()));
+        }
+      }
+    }
+
+    if (saved > 0)
+      answerKeyCache.evictTopic(topic);
+    failures.sort(Comparator.comparingInt(QuestionImportResultDTO.Failure::getIndex));
+    return QuestionImportResultDTO.builder()
+        .saved(saved)
+        .failures(failures)
+        .build();
+  }
+
+  private static Question toQuestion(Topic topic, PracticeQuestionDTO dto) {
+    if (dto == null)
+      throw new IllegalArgumentException("Question is empty");
+
+    String content = dto.getTitle();
+    List<String> options = dto.getOptions();
+    boolean hasOptions = options != null && options.size() == OPTIONS;
+    boolean truncated = content == null || content.endsWith("...");
+    if (!hasOptions || truncated) {
+      // Pasted text and older clients only send the formatted statement: take
+      // the options and the untruncated question text from it in one scan
+      String[] parsed = new String[OPTIONS];
+      String stem = null;
+      if (dto.getProblemStatement() != null) {
+        for (String raw : dto.getProblemStatement().split("\n")) {
+          String line = raw.trim();
+          if (line.isEmpty())
+            continue;
+          int option = McqTokenizer.optionIndex(line);
+          if (option >= 0)
+            parsed[option] = McqTokenizer.optionText(line);
+          else if (stem == null)
+            stem = line;
+        }
+      }
+      if (!hasOptions)
+        options = Arrays.asList(parsed);
+      if (truncated && stem != null)
+        content = stem;
+    }
+
+    if (content == null || content.isBlank())
+      throw new IllegalArgumentException("Question text is missing");
+    for (int i = 0; i < OPTIONS; i++) {
+      if (options.get(i) == null || options.get(i).isBlank())
+        throw new IllegalArgumentException("Option " + (char) ('A' + i) + " is missing");
+    }
+
+    String correctOption = dto.getSolution() != null && !dto.getSolution().isBlank()
+        ? dto.getSolution().trim().toUpperCase(Locale.ROOT)
+        : "A";
+    if (correctOption.length() != 1 || correctOption.charAt(0) < 'A' || correctOption.charAt(0) >= 'A' + OPTIONS)
+      throw new IllegalArgumentException("Answer must be one of A, B, C or D");
+
+    // Map difficulty
+    Question.Difficulty difficulty;
+    try {
+      difficulty = Question.Difficulty.valueOf(dto.getDifficulty().toUpperCase(Locale.ROOT));
+    } catch (Exception e) {
+      difficulty = Question.Difficulty.MEDIUM;
+    }
+
+    return Question.builder()
+        .id(EvaluationWriter.newId())
+        .topic(topic)
+        .content(content)
+        .optionA(options.get(0))
+        .optionB(options.get(1))
+        .optionC(options.get(2))
+        .optionD(options.get(3))
+        .correctOption(correctOption)
+        .difficulty(difficulty)
+        .build();
+  }
+}
@@ -0,0 +1,210 @@
+package com.skgdp.service;
+
+import com.skgdp.entity.Assessment;
+import com.skgdp.entity.Course;
+import com.skgdp.entity.MCQAttempt;
+import com.skgdp.entity.Topic;
+import com.skgdp.entity.User;
+import com.skgdp.repository.ReferenceResolver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps the display names copied into MCQ attempts and assessments in line
+ * with the users, topics and courses they reference.
+ *
+ * A saved user, topic or course schedules one multi-document update per
+ * affected collection on a background thread; repeated saves of the same
+ * document before the update runs collapse into one. Documents written before
+ * the names were stored are filled in at startup, until a completed backfill is
+ * recorded in the migrations collection.
+ */
+@Component
+@Slf4j
+public class ReadModelReconciler extends AbstractMongoEventListener<Object> {
+
+  private static final int BACKFILL_CHUNK = 500;
+  private static final String MIGRATIONS = "migrations";
+  private static final String BACKFILL_MIGRATION = "read-model-display-names";
+
+  private final MongoTemplate mongoTemplate;
+  private final ReferenceResolver referenceResolver;
+  private final Map<String, Runnable> pending = new ConcurrentHashMap<>();
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "read-model-reconciler");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public ReadModelReconciler(MongoTemplate mongoTemplate, ReferenceResolver referenceResolver) {
+    this.mongoTemplate = mongoTemplate;
+    this.referenceResolver = referenceResolver;
+  }
+
+  @Override
+  public void onAfterSave(AfterSaveEvent<Object> event) {
+    Object source = event.getSource();
+    if (source instanceof User user) {
+      Map<String, Object> names = names("studentName", user.getFullName());
+      schedule("user:" + user.getId(), () -> {
+        propagate(MCQAttempt.class, "student", user.getId(), names);
+        propagate(Assessment.class, "student", user.getId(), names);
+      });
+    } else if (source instanceof Topic topic) {
+      Map<String, Object> names = names("topicName", topic.getName());
+      schedule("topic:" + topic.getId(), () -> propagate(MCQAttempt.class, "topic", topic.getId(), names));
+    } else if (source instanceof Course course) {
+      Map<String, Object> names = names("courseName", course.getTitle());
+      names.put("courseCode", course.getCode());
+      schedule("course:" + course.getId(), () -> propagate(Assessment.class, "course", course.getId(), names));
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfill() {
+    executor.execute(() -> {
+      try {
+        Query marker = new Query(Criteria.where("_id").is(BACKFILL_MIGRATION));
+        if (mongoTemplate.exists(marker, MIGRATIONS))
+          return;
+        int attempts = backfill(MCQAttempt.class, MCQAttempt::getId, this::attemptNames);
+        int assessments = backfill(Assessment.class, Assessment::getId, this::assessmentNames);
+        if (attempts + assessments > 0)
+          log.info("Backfilled display names of {} attempts and {} assessments", attempts, assessments);
+        // New documents get their names on write, so this never has to run again
+        mongoTemplate.upsert(marker, new Update().set("completedAt", Instant.now()), MIGRATIONS);
+      } catch (RuntimeException e) {
+        log.warn("Display name backfill failed", e);
+      }
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  private void schedule(String key, Runnable update) {
+    // Only the latest update per document is kept until the worker gets to it
+    if (pending.put(key, update) != null)
+      return;
+    executor.execute(() -> {
+      Runnable latest = pending.remove(key);
+      if (latest == null)
+        return;
+      try {
+        latest.run();
+      } catch (RuntimeException e) {
+        log.warn("Could not propagate display names for {}", key, e);
+      }
+    });
+  }
+
+  /**
+   * Sets the names on every document referencing the given id that does not
+   * already carry them.
+   */
+  private void propagate(Class<?> type, String refField, String id, Map<String, Object> names) {
+    List<Criteria> stale = new ArrayList<>();
+    Update update = new Update();
+    names.forEach((field, value) -> {
+      stale.add(Criteria.where(field).ne(value));
+      update.set(field, value);
+    });
+    Query query = new Query(Criteria.where(refField + ".$id").is(toMongoId(id))
+        .orOperator(stale.toArray(new Criteria[0])));
+    mongoTemplate.updateMulti(query, update, type);
+  }
+
+  /**
+   * Fills the names of documents that predate them, one chunk at a time. Each
+   * chunk continues after the last id of the previous one in _id order, so the
+   * walk over the _id index never revisits documents. A reference to a deleted
+   * document gets a null name, which still marks the document as done.
+   */
+  private <T> int backfill(Class<T> type, Function<T, String> idGetter, Function<List<T>, List<Update>> names) {
+    int total = 0;
+    Object lastId = null;
+    while (true) {
+      Criteria criteria = Criteria.where("studentName").exists(false);
+      if (lastId != null)
+        criteria = criteria.and("_id").gt(lastId);
+      Query query = new Query(criteria).with(Sort.by("_id")).limit(BACKFILL_CHUNK);
+      List<T> docs = mongoTemplate.find(query, type);
+      if (docs.isEmpty())
+        return total;
+
+      List<Update> updates = names.apply(docs);
+      BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+      for (int i = 0; i < docs.size(); i++) {
+        Object id = toMongoId(idGetter.apply(docs.get(i)));
+        bulk.updateOne(new Query(Criteria.where("_id").is(id)), updates.get(i));
+        lastId = id;
+      }
+      bulk.execute();
+      total += docs.size();
+      if (docs.size() < BACKFILL_CHUNK)
+        return total;
+    }
+  }
+
+  private List<Update> attemptNames(List<MCQAttempt> attempts) {
+    referenceResolver.resolve(attempts, User.class, MCQAttempt::getStudent, MCQAttempt::setStudent);
+    referenceResolver.resolve(attempts, Topic.class, MCQAttempt::getTopic, MCQAttempt::setTopic);
+    List<Update> updates = new ArrayList<>(attempts.size());
+    for (MCQAttempt attempt : attempts) {
+      updates.add(new Update()
+          .set("studentName", attempt.getStudent() != null ? attempt.getStudent().getFullName() : null)
+          .set("topicName", attempt.getTopic() != null ? attempt.getTopic().getName() : null));
+    }
+    return updates;
+  }
+
+  private List<Update> assessmentNames(List<Assessment> assessments) {
+    referenceResolver.resolve(assessments, User.class, Assessment::getStudent, Assessment::setStudent);
+    referenceResolver.resolve(assessments, Course.class, Assessment::getCourse, Assessment::setCourse);
+    List<Update> updates = new ArrayList<>(assessments.size());
+    for (Assessment assessment : assessments) {
+      Course course = assessment.getCourse();
+      updates.add(new Update()
+          .set("studentName", assessment.getStudent() != null ? assessment.getStudent().getFullName() : null)
+          .set("courseName", course != null ? course.getTitle() : null)
+          .set("courseCode", course != null ? course.getCode() : null));
+    }
+    return updates;
+  }
+
+  private static Map<String, Object> names(String field, Object value) {
+    Map<String, Object> names = new LinkedHashMap<>();
+    names.put(field, value);
+    return names;
+  }
+
+  private static Object toMongoId(String id) {
+    return ObjectId.isValid(id) ? new ObjectId(id) : id;
+  }
+}
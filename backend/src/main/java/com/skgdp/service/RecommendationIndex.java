@@ -0,0 +1,117 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.AssessmentResultDTO;
+import com.skgdp.entity.Recommendation;
+import com.skgdp.entity.Topic;
+import com.skgdp.repository.RecommendationRepository;
+import com.skgdp.repository.ReferenceResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only, in-memory index of recommendations by topic.
+ *
+ * The whole collection is loaded at startup into an immutable map that is
+ * replaced as a unit. Any save or delete of a recommendation marks the index
+ * stale, and the next read rebuilds it, so a burst of changes costs a single
+ * reload.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationIndex extends AbstractMongoEventListener<Recommendation> {
+
+  private final RecommendationRepository recRepo;
+  private final ReferenceResolver referenceResolver;
+
+  private volatile Map<String, List<AssessmentResultDTO.RecommendationDTO>> byTopic;
+  private volatile boolean stale = true;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    current();
+  }
+
+  public List<AssessmentResultDTO.RecommendationDTO> forTopic(String topicId) {
+    return current().getOrDefault(topicId, List.of());
+  }
+
+  public List<AssessmentResultDTO.RecommendationDTO> forTopics(Collection<String> topicIds) {
+    Map<String, List<AssessmentResultDTO.RecommendationDTO>> index = current();
+    List<AssessmentResultDTO.RecommendationDTO> result = new ArrayList<>();
+    for (String topicId : topicIds) {
+      result.addAll(index.getOrDefault(topicId, List.of()));
+    }
+    return result;
+  }
+
+  public List<AssessmentResultDTO.RecommendationDTO> all() {
+    return current().values().stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public void onAfterSave(AfterSaveEvent<Recommendation> event) {
+    stale = true;
+  }
+
+  @Override
+  public void onAfterDelete(AfterDeleteEvent<Recommendation> event) {
+    stale = true;
+  }
+
+  private Map<String, List<AssessmentResultDTO.RecommendationDTO>> current() {
+    // stale is cleared before the first load publishes, so a reader that
+    // finds nothing yet waits for that load
+    if (stale || byTopic == null)
+      reload();
+    return byTopic;
+  }
+
+  private synchronized void reload() {
+    if (!stale && byTopic != null)
+      return;
+    // Clear first so a change that lands during the reload triggers another
+    stale = false;
+    Map<String, List<AssessmentResultDTO.RecommendationDTO>> index = new HashMap<>();
+    try {
+      List<Recommendation> all = recRepo.findAll();
+      referenceResolver.resolve(all, Topic.class, Recommendation::getTopic, Recommendation::setTopic);
+      for (Recommendation r : all) {
+        if (r.getTopic() == null)
+          continue;
+        index.computeIfAbsent(r.getTopic().getId(), k -> new ArrayList<>()).add(toDTO(r));
+      }
+    } catch (RuntimeException e) {
+      stale = true;
+      throw e;
+    }
+    index.replaceAll((topicId, recs) -> List.copyOf(recs));
+    byTopic = Map.copyOf(index);
+    log.info("Loaded recommendation index for {} topics", index.size());
+  }
+
+  private static AssessmentResultDTO.RecommendationDTO toDTO(Recommendation r) {
+    return AssessmentResultDTO.RecommendationDTO.builder()
+        .id(r.getId())
+        .topicId(r.getTopic().getId())
+        .url(r.getUrl())
+        .description(r.getDescription())
+        .type(r.getType().name())
+        .build();
+  }
+}
@@ -0,0 +1,93 @@
+package com.skgdp.service;
+
+import com.skgdp.entity.Question;
+
+/**
+ * Dense per-topic score counters for one submission.
+ *
+ * Counters are plain int arrays indexed by the topic positions of a
+ * {@link CourseAnswerKey} and by question difficulty, so recording an answer
+ * is a binary search plus two array increments: no boxing and no allocation
+ * per answer.
+ */
+public final class TopicScoreboard {
+
+  /** Difficulty slots per topic: one per difficulty plus one for unset. */
+  static final int SLOTS = Question.Difficulty.values().length + 1;
+
+  private final CourseAnswerKey answerKey;
+  private final int[] correct;
+  private final int[] total;
+  private int totalCorrect;
+  private int answerCount;
+
+  public TopicScoreboard(CourseAnswerKey answerKey) {
+    this.answerKey = answerKey;
+    this.correct = new int[answerKey.getTopics().size() * SLOTS];
+    this.total = new int[answerKey.getTopics().size() * SLOTS];
+  }
+
+  /**
+   * Scores one answer against the course key.
+   *
+   * @return false if the question is not part of the course, in which case
+   *         only the answer count is updated
+   */
+  public boolean record(String questionId, String selectedOption) {
+    answerCount++;
+    int index = answerKey.indexOf(questionId);
+    if (index < 0)
+      return false;
+
+    int difficulty = answerKey.difficultyAt(index);
+    int slot = answerKey.topicIndexAt(index) * SLOTS + (difficulty < 0 ? SLOTS - 1 : difficulty);
+    total[slot]++;
+    if (answerKey.isCorrect(index, selectedOption)) {
+      correct[slot]++;
+      totalCorrect++;
+    }
+    return true;
+  }
+
+  /**
+   * Adds correct answers that were scored outside the course key.
+   */
+  public void addCorrect(int count) {
+    totalCorrect += count;
+  }
+
+  public int correctAt(int topicIndex) {
+    return sum(correct, topicIndex);
+  }
+
+  public int totalAt(int topicIndex) {
+    return sum(total, topicIndex);
+  }
+
+  /** Correct answers on a topic for one difficulty slot. */
+  public int correctAt(int topicIndex, int slot) {
+    return correct[topicIndex * SLOTS + slot];
+  }
+
+  /** Answers on a topic for one difficulty slot. */
+  public int totalAt(int topicIndex, int slot) {
+    return total[topicIndex * SLOTS + slot];
+  }
+
+  public int getTotalCorrect() {
+    return totalCorrect;
+  }
+
+  public int getAnswerCount() {
+    return answerCount;
+  }
+
+  private static int sum(int[] counters, int topicIndex) {
+    int from = topicIndex * SLOTS;
+    int sum = 0;
+    for (int i = from; i < from + SLOTS; i++) {
+      sum += counters[i];
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,220 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.PracticeQuestionSummaryDTO;
+import com.skgdp.entity.KnowledgeGapState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdaptiveQuestionSelectorTest {
+
+  @Test
+  void samplerPicksTheSlotContainingTheTarget() {
+    AdaptiveQuestionSelector.FenwickSampler sampler = new AdaptiveQuestionSelector.FenwickSampler(
+        List.of(1.0, 0.0, 2.0, 3.0, 0.5));
+
+    assertEquals(6.5, sampler.total(), 1e-9);
+    assertEquals(0, sampler.sample(0));
+    assertEquals(0, sampler.sample(0.999));
+    assertEquals(2, sampler.sample(1.0));
+    assertEquals(2, sampler.sample(2.999));
+    assertEquals(3, sampler.sample(3.0));
+    assertEquals(3, sampler.sample(5.999));
+    assertEquals(4, sampler.sample(6.0));
+  }
+
+  @Test
+  void samplerFollowsWeightUpdates() {
+    AdaptiveQuestionSelector.FenwickSampler sampler = new AdaptiveQuestionSelector.FenwickSampler(
+        List.of(1.0, 1.0, 1.0, 1.0));
+
+    sampler.set(1, 0);
+    sampler.set(3, 5);
+
+    assertEquals(7, sampler.total(), 1e-9);
+    assertEquals(0, sampler.sample(0.5));
+    assertEquals(2, sampler.sample(1.5));
+    assertEquals(3, sampler.sample(2.5));
+    assertEquals(3, sampler.sample(6.9));
+  }
+
+  @Test
+  void samplerProportionsMatchWeights() {
+    double[] weights = { 0.5, 3.0, 0.0, 1.5, 5.0 };
+    List<Double> initial = new ArrayList<>();
+    for (double weight : weights) {
+      initial.add(weight);
+    }
+    AdaptiveQuestionSelector.FenwickSampler sampler = new AdaptiveQuestionSelector.FenwickSampler(initial);
+
+    // Evenly spaced targets hit each slot in proportion to its weight
+    int steps = 10_000;
+    int[] hits = new int[weights.length];
+    for (int i = 0; i < steps; i++) {
+      hits[sampler.sample((i + 0.5) * sampler.total() / steps)]++;
+    }
+    for (int i = 0; i < weights.length; i++) {
+      assertEquals(weights[i] / sampler.total() * steps, hits[i], 1.0);
+    }
+  }
+
+  @Test
+  void samplerFallsBackFromZeroWeightSlots() {
+    // A target at the total, as rounding can produce, lands past the last
+    // positive slot
+    AdaptiveQuestionSelector.FenwickSampler trailing = new AdaptiveQuestionSelector.FenwickSampler(
+        List.of(1.0, 1.0, 0.0));
+    assertEquals(1, trailing.sample(trailing.total()));
+
+    // Slots zeroed after construction are skipped
+    AdaptiveQuestionSelector.FenwickSampler zeroed = new AdaptiveQuestionSelector.FenwickSampler(
+        List.of(1.0, 1.0, 1.0));
+    zeroed.set(0, 0);
+    zeroed.set(2, 0);
+    assertEquals(1, zeroed.sample(0));
+    assertEquals(1, zeroed.sample(zeroed.total()));
+
+    zeroed.set(1, 0);
+    assertThrows(IllegalStateException.class, () -> zeroed.sample(0));
+  }
+
+  @Test
+  void cellDrawTakesEveryIdOnce() {
+    String[] ids = new String[50];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = "q" + i;
+    }
+    String[] copy = ids.clone();
+    AdaptiveQuestionSelector.CellDraw draw = new AdaptiveQuestionSelector.CellDraw(ids);
+    Random random = new Random(7);
+
+    Set<String> drawn = new HashSet<>();
+    for (int i = 0; i < ids.length; i++) {
+      assertFalse(draw.exhausted());
+      assertTrue(drawn.add(draw.next(random)));
+    }
+    assertTrue(draw.exhausted());
+    assertEquals(Set.of(copy), drawn);
+    // The shared pool array is never reordered
+    assertEquals(List.of(copy), List.of(ids));
+  }
+
+  @Test
+  void cellDrawIsUniform() {
+    String[] ids = { "a", "b", "c", "d" };
+    Random random = new Random(11);
+    Map<String, Integer> firsts = new HashMap<>();
+    Map<String, Integer> lasts = new HashMap<>();
+    int runs = 8_000;
+    for (int run = 0; run < runs; run++) {
+      AdaptiveQuestionSelector.CellDraw draw = new AdaptiveQuestionSelector.CellDraw(ids);
+      firsts.merge(draw.next(random), 1, Integer::sum);
+      draw.next(random);
+      draw.next(random);
+      lasts.merge(draw.next(random), 1, Integer::sum);
+    }
+    for (String id : ids) {
+      assertEquals(runs / 4.0, firsts.get(id), runs * 0.03);
+      assertEquals(runs / 4.0, lasts.get(id), runs * 0.03);
+    }
+  }
+
+  @Test
+  void targetsHardQuestionsForStrongStudentsAndEasyOnesForWeakOnes() {
+    // One topic with one question per band: success rates 5%, 25%, ... 85%
+    List<PracticeQuestionSummaryDTO> questions = new ArrayList<>();
+    for (int b = 0; b < AdaptiveQuestionSelector.BANDS; b++) {
+      int successes = b * 20 + 4;
+      questions.add(question("band-" + b, "topic", 100, successes));
+      assertEquals(b, AdaptiveQuestionSelector.band(questions.get(b)));
+    }
+
+    Map<String, Integer> strong = firstPicks(selector(questions, 90.0), 4_000);
+    Map<String, Integer> weak = firstPicks(selector(questions, 10.0), 4_000);
+
+    // Band 0 is the one few attempts solve
+    assertTrue(strong.getOrDefault("band-0", 0) > strong.getOrDefault("band-4", 0) * 5, strong.toString());
+    assertTrue(weak.getOrDefault("band-4", 0) > weak.getOrDefault("band-0", 0) * 5, weak.toString());
+  }
+
+  @Test
+  void selectsFromLargeBankQuickly() {
+    // 100k questions over 200 topics with varied success rates
+    Random random = new Random(3);
+    List<PracticeQuestionSummaryDTO> questions = new ArrayList<>(100_000);
+    for (int i = 0; i < 100_000; i++) {
+      int attempts = random.nextInt(50);
+      questions.add(question("q" + i, "topic-" + (i % 200), attempts, attempts == 0 ? 0 : random.nextInt(attempts + 1)));
+    }
+    AdaptiveQuestionSelector selector = selector(questions, 40.0);
+    selector.select("student", 20); // builds the pools
+
+    int requests = 200;
+    long start = System.nanoTime();
+    for (int i = 0; i < requests; i++) {
+      List<PracticeQuestionSummaryDTO> picked = selector.select("student", 20);
+      assertEquals(20, picked.size());
+      assertEquals(20, picked.stream().map(PracticeQuestionSummaryDTO::getId).distinct().count());
+    }
+    double averageMillis = (System.nanoTime() - start) / 1e6 / requests;
+    // Per-request work depends on the 1,000 cells, not the 100k questions;
+    // the bound is loose enough for a slow CI machine
+    assertTrue(averageMillis < 20, "average select took " + averageMillis + " ms");
+  }
+
+  private static Map<String, Integer> firstPicks(AdaptiveQuestionSelector selector, int runs) {
+    Map<String, Integer> picks = new HashMap<>();
+    for (int i = 0; i < runs; i++) {
+      picks.merge(selector.select("student", 1).get(0).getId(), 1, Integer::sum);
+    }
+    return picks;
+  }
+
+  private static AdaptiveQuestionSelector selector(List<PracticeQuestionSummaryDTO> questions, double score) {
+    Map<String, PracticeQuestionSummaryDTO> byId = new HashMap<>();
+    Set<String> topics = new HashSet<>();
+    for (PracticeQuestionSummaryDTO question : questions) {
+      byId.put(question.getId(), question);
+      topics.add(question.getTopicId());
+    }
+    List<KnowledgeGapState> states = new ArrayList<>();
+    for (String topic : topics) {
+      states.add(KnowledgeGapState.builder().studentId("student").topicId(topic).weaknessScore(score).build());
+    }
+
+    PracticeQuestionCatalog catalog = mock(PracticeQuestionCatalog.class);
+    when(catalog.all()).thenReturn(questions);
+    when(catalog.getVersion()).thenReturn(1L);
+    when(catalog.get(anyList())).thenAnswer(invocation -> {
+      List<String> ids = invocation.getArgument(0);
+      return ids.stream().map(byId::get).toList();
+    });
+    KnowledgeGapStateService gapStateService = mock(KnowledgeGapStateService.class);
+    when(gapStateService.getStates(anyString())).thenReturn(states);
+    return new AdaptiveQuestionSelector(catalog, gapStateService, 60_000);
+  }
+
+  private static PracticeQuestionSummaryDTO question(String id, String topicId, int attempts, int successes) {
+    return PracticeQuestionSummaryDTO.builder()
+        .id(id)
+        .topicId(topicId)
+        .attemptCount(attempts)
+        .successCount(successes)
+        .build();
+  }
+}
@@ -0,0 +1,116 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.PracticeQuestionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CodingQuestionSplitterTest {
+
+  private static final String TEXT =
+      "Practice set for week 3\n" +
+      "Problem 1. Reverse a linked list\n" +
+      "Given the head of a singly linked list, reverse it in place.\n" +
+      "Question 2: Two sum\n" +
+      "Return the indices of the two numbers that add up to the target.\n" +
+      "Q 3 Balanced brackets\n" +
+      "Check whether every bracket in the string is closed.\n" +
+      "Q4.Short\n" +
+      "Questions 5 are not markers, and neither is Problems 6.\n" +
+      "Question   12\n" +
+      "A marker with a long gap before its number and a multi-digit number.";
+
+  @Test
+  void splitsAtMarkers() {
+    List<PracticeQuestionDTO> questions = parse(TEXT);
+
+    assertEquals(6, questions.size());
+    assertEquals("Practice set for week 3", questions.get(0).getTitle());
+    assertEquals("Reverse a linked list", questions.get(1).getTitle());
+    assertEquals("Two sum", questions.get(2).getTitle());
+    assertEquals("Balanced brackets", questions.get(3).getTitle());
+    assertEquals("Q 3 Balanced brackets\nCheck whether every bracket in the string is closed.",
+        questions.get(3).getProblemStatement());
+    // "Questions 5" and "Problems 6" are not markers, so they stay in problem 4
+    assertEquals("Short", questions.get(4).getTitle());
+    assertEquals("Q4.Short\nQuestions 5 are not markers, and neither is Problems 6.",
+        questions.get(4).getProblemStatement());
+    // The marker line holds nothing but the marker
+    assertEquals("", questions.get(5).getTitle());
+    assertEquals("Question   12\nA marker with a long gap before its number and a multi-digit number.",
+        questions.get(5).getProblemStatement());
+    assertEquals("Coding", questions.get(0).getType());
+  }
+
+  @Test
+  void matchesWholeTextSplitForAnyChunking() {
+    List<PracticeQuestionDTO> expected = splitWholeText(TEXT);
+    Random random = new Random(5);
+    for (int run = 0; run < 200; run++) {
+      List<String> chunks = new ArrayList<>();
+      int start = 0;
+      while (start < TEXT.length()) {
+        int end = Math.min(TEXT.length(), start + 1 + random.nextInt(12));
+        chunks.add(TEXT.substring(start, end));
+        start = end;
+      }
+      assertEquals(expected, parse(chunks.toArray(new String[0])), "chunks " + chunks);
+    }
+  }
+
+  @Test
+  void markerSplitAcrossChunks() {
+    List<PracticeQuestionDTO> questions = parse(
+        "Problem 1. First problem statement\nwith some more text\nQue",
+        "stion 2",
+        "  : Second problem statement here");
+
+    assertEquals(2, questions.size());
+    assertEquals("Second problem statement here", questions.get(1).getTitle());
+  }
+
+  @Test
+  void truncatesLongTitles() {
+    List<PracticeQuestionDTO> questions = parse("Problem 1. " + "y".repeat(80));
+
+    assertEquals(50, questions.get(0).getTitle().length());
+  }
+
+  private static List<PracticeQuestionDTO> parse(String... chunks) {
+    List<PracticeQuestionDTO> questions = new ArrayList<>();
+    CodingQuestionSplitter splitter = new CodingQuestionSplitter("topic", questions::add);
+    for (String chunk : chunks) {
+      splitter.feed(chunk);
+    }
+    splitter.finish();
+    assertEquals(questions.size(), splitter.getEmitted());
+    return questions;
+  }
+
+  // The previous implementation, which split the whole text at once
+  private static List<PracticeQuestionDTO> splitWholeText(String text) {
+    List<PracticeQuestionDTO> questions = new ArrayList<>();
+    for (String block : text.split("(?=(?:Problem|Question|Q)\\s*\\d+[.:\\s])")) {
+      block = block.trim();
+      if (block.length() < 20)
+        continue;
+      String title = block.split("\\n", 2)[0].replaceFirst("^(?:Problem|Question|Q)\\s*\\d+[.:\\s]*", "").trim();
+      if (title.length() > 50)
+        title = title.substring(0, 47) + "...";
+      questions.add(PracticeQuestionDTO.builder()
+          .topicId("topic")
+          .title(title)
+          .problemStatement(block)
+          .type("Coding")
+          .difficulty("MEDIUM")
+          .solution("")
+          .active(true)
+          .build());
+    }
+    return questions;
+  }
+}
@@ -0,0 +1,208 @@
+package com.skgdp.service;
+
+import com.skgdp.dto.PracticeQuestionDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class McqTokenizerTest {
+
+  @Test
+  void parsesNumberedAndQPrefixedQuestions() {
+    List<PracticeQuestionDTO> questions = parse(
+        "1. What is 2 + 2?\n" +
+        "A) 3\n" +
+        "B) 4\n" +
+        "C) 5\n" +
+        "D) 6\n" +
+        "Answer: B\n" +
+        "Q2) Which planet is largest?\n" +
+        "A) Mars\n" +
+        "B) Venus\n" +
+        "C) Jupiter\n" +
+        "D) Earth\n" +
+        "Q 3: Unanswered question\n" +
+        "A) w\n" +
+        "B) x\n" +
+        "C) y\n" +
+        "D) z\n");
+
+    assertEquals(3, questions.size());
+    assertEquals("What is 2 + 2?", questions.get(0).getTitle());
+    assertEquals(List.of("3", "4", "5", "6"), questions.get(0).getOptions());
+    assertEquals("B", questions.get(0).getSolution());
+    assertEquals("Which planet is largest?", questions.get(1).getTitle());
+    assertEquals(List.of("Mars", "Venus", "Jupiter", "Earth"), questions.get(1).getOptions());
+    assertEquals("Unanswered question", questions.get(2).getTitle());
+    assertEquals("A", questions.get(2).getSolution());
+    assertEquals("topic", questions.get(0).getTopicId());
+  }
+
+  @Test
+  void dropsBlocksWithoutAllOptions() {
+    List<PracticeQuestionDTO> questions = parse(
+        "1. Incomplete\n" +
+        "A) one\n" +
+        "B) two\n" +
+        "\n" +
+        "2. Complete\n" +
+        "A) one\n" +
+        "B) two\n" +
+        "C) three\n" +
+        "D) four\n");
+
+    assertEquals(1, questions.size());
+    assertEquals("Complete", questions.get(0).getTitle());
+  }
+
+  @Test
+  void decimalIsNotAQuestionNumber() {
+    assertEquals(-1, McqTokenizer.questionNumberEnd("3.14 is close to pi"));
+    assertEquals("Stem", stemOf("12. Stem"));
+    assertEquals("Stem", stemOf("Q 2) Stem"));
+    assertEquals("Stem", stemOf("q7:Stem"));
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+      "(a) first|0|first",
+      "a. first|0|first",
+      "b: second|1|second",
+      "C) third|2|third",
+      "(D) fourth|3|fourth",
+      "d] fourth|3|fourth",
+  })
+  void recognisesOptionLabels(String line, int index, String text) {
+    assertEquals(index, McqTokenizer.optionIndex(line));
+    assertEquals(text, McqTokenizer.optionText(line));
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+      "E) fifth",
+      "About this",
+      "(",
+  })
+  void rejectsOtherLinesAsOptions(String line) {
+    assertEquals(-1, McqTokenizer.optionIndex(line));
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+      "Answer: B|B",
+      "answer:b|B",
+      "Ans - (c)|C",
+      "Ans. D|D",
+      "Correct answer: D|D",
+      "Correct option - a|A",
+      "Answer D|D",
+      "Ans (b)|B",
+      "Correct answer c.|C",
+  })
+  void readsAnswerLines(String line, char letter) {
+    assertEquals(letter, McqTokenizer.answerLetter(line));
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+      "Answer: Because it is",
+      "Answer: E",
+      "Another line",
+      "Correct a bug in the loop below",
+      "Answer a question about sorting",
+      "Ans b c",
+  })
+  void ignoresLinesThatAreNotAnswers(String line) {
+    assertEquals(0, McqTokenizer.answerLetter(line));
+  }
+
+  @Test
+  void keepsStemLinesThatStartLikeAnswers() {
+    List<PracticeQuestionDTO> questions = parse(
+        "Correct a bug in the loop below\n" +
+        "Answer a question about its output\n" +
+        "A) it prints 0\n" +
+        "B) it prints 1\n" +
+        "C) it loops forever\n" +
+        "D) it does not compile\n" +
+        "Answer C\n");
+
+    assertEquals(1, questions.size());
+    assertEquals("Correct a bug in the loop below Answer a question about its output",
+        questions.get(0).getProblemStatement().split("\n")[0]);
+    assertEquals("C", questions.get(0).getSolution());
+  }
+
+  @Test
+  void handlesCrLfSplitAcrossChunks() {
+    // The \r\n after option A is split, which must not read as a blank line
+    List<PracticeQuestionDTO> questions = parse(
+        "1. Split line ending\r\nA) one\r",
+        "\nB) two\r\nC) three\r\nD) four\r\nAnswer: C\r\n");
+
+    assertEquals(1, questions.size());
+    assertEquals(List.of("one", "two", "three", "four"), questions.get(0).getOptions());
+    assertEquals("C", questions.get(0).getSolution());
+  }
+
+  @Test
+  void joinsQuestionStraddlingFeedBoundary() {
+    List<PracticeQuestionDTO> questions = parse(
+        "1. What is the cap",
+        "ital of France?\nA) Par",
+        "is\nB) Lyon\nC) Nice\nD) Lille\nAns",
+        "wer: A");
+
+    assertEquals(1, questions.size());
+    assertEquals("What is the capital of France?", questions.get(0).getTitle());
+    assertEquals("Paris", questions.get(0).getOptions().get(0));
+    assertEquals("A", questions.get(0).getSolution());
+  }
+
+  @Test
+  void sameResultForAnyChunking() {
+    String text = "1. First\r\n(a) one\r\n(b) two\r\n(c) three\r\n(d) four\r\nCorrect answer: D\r\n\r\n" +
+        "Second question without a number\r\na. w\r\nb. x\r\nc. y\r\nd. z\r\n";
+    List<PracticeQuestionDTO> whole = parse(text);
+
+    List<String> characters = new ArrayList<>();
+    for (char c : text.toCharArray()) {
+      characters.add(String.valueOf(c));
+    }
+    List<PracticeQuestionDTO> single = parse(characters.toArray(new String[0]));
+
+    assertEquals(2, whole.size());
+    assertEquals("D", whole.get(0).getSolution());
+    assertEquals("Second question without a number", whole.get(1).getTitle());
+    assertEquals(whole, single);
+  }
+
+  @Test
+  void truncatesLongTitles() {
+    String stem = "x".repeat(60);
+    List<PracticeQuestionDTO> questions = parse("1. " + stem + "\nA) a\nB) b\nC) c\nD) d");
+
+    assertEquals(50, questions.get(0).getTitle().length());
+    assertEquals(stem + "\nA) a\nB) b\nC) c\nD) d", questions.get(0).getProblemStatement());
+  }
+
+  private static String stemOf(String line) {
+    return line.substring(McqTokenizer.questionNumberEnd(line));
+  }
+
+  private static List<PracticeQuestionDTO> parse(String... chunks) {
+    List<PracticeQuestionDTO> questions = new ArrayList<>();
+    McqTokenizer tokenizer = new McqTokenizer("topic", questions::add);
+    for (String chunk : chunks) {
+      tokenizer.feed(chunk);
+    }
+    tokenizer.finish();
+    assertEquals(questions.size(), tokenizer.getEmitted());
+    return questions;
+  }
+}
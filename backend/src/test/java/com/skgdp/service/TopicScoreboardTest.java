@@ -0,0 +1,111 @@
+package com.skgdp.service;
+
+import com.skgdp.entity.Course;
+import com.skgdp.entity.Question;
+import com.skgdp.entity.Topic;
+import com.skgdp.repository.QuestionKey;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the dense scoreboard against the boxed per-topic lists it replaced.
+ */
+class TopicScoreboardTest {
+
+  private static final String[] OPTIONS = { "A", "B", "C", "D" };
+
+  @ParameterizedTest
+  @ValueSource(ints = { 10, 100, 1_000 })
+  void matchesBoxedListScoring(int questionCount) {
+    Random random = new Random(questionCount);
+    List<Topic> topics = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      topics.add(Topic.builder().id("topic-" + i).name("Topic " + i).build());
+    }
+    List<QuestionKey> keys = new ArrayList<>();
+    for (int i = 0; i < questionCount; i++) {
+      Question.Difficulty[] difficulties = Question.Difficulty.values();
+      String difficulty = i % 7 == 0 ? null : difficulties[random.nextInt(difficulties.length)].name();
+      keys.add(new QuestionKey(String.format("q-%05d", i), topics.get(random.nextInt(topics.size())).getId(),
+          OPTIONS[random.nextInt(OPTIONS.length)], difficulty));
+    }
+    CourseAnswerKey answerKey = CourseAnswerKey.build(Course.builder().id("course").build(), topics, keys);
+
+    // Every question once, in random order, with a few answers from elsewhere
+    List<String[]> answers = new ArrayList<>();
+    for (QuestionKey key : keys) {
+      String selected = random.nextInt(10) == 0 ? null : OPTIONS[random.nextInt(OPTIONS.length)];
+      answers.add(new String[] { key.getId(), selected });
+    }
+    for (int i = 0; i < 3; i++) {
+      answers.add(new String[] { "other-" + i, "A" });
+    }
+    Collections.shuffle(answers, random);
+
+    TopicScoreboard scoreboard = new TopicScoreboard(answerKey);
+    int outside = 0;
+    for (String[] answer : answers) {
+      if (!scoreboard.record(answer[0], answer[1]))
+        outside++;
+    }
+
+    // The previous implementation: a List<Boolean> per topic id
+    Map<String, QuestionKey> byId = new HashMap<>();
+    keys.forEach(k -> byId.put(k.getId(), k));
+    Map<String, List<Boolean>> topicPerformance = new HashMap<>();
+    topics.forEach(t -> topicPerformance.put(t.getId(), new ArrayList<>()));
+    int totalCorrect = 0;
+    int expectedOutside = 0;
+    for (String[] answer : answers) {
+      QuestionKey key = byId.get(answer[0]);
+      if (key == null) {
+        expectedOutside++;
+        continue;
+      }
+      boolean isCorrect = key.isCorrect(answer[1]);
+      if (isCorrect)
+        totalCorrect++;
+      topicPerformance.get(key.getTopicId()).add(isCorrect);
+    }
+
+    assertEquals(expectedOutside, outside);
+    assertEquals(totalCorrect, scoreboard.getTotalCorrect());
+    assertEquals(answers.size(), scoreboard.getAnswerCount());
+    for (int i = 0; i < topics.size(); i++) {
+      List<Boolean> results = topicPerformance.get(topics.get(i).getId());
+      long correctCount = results.stream().filter(r -> r).count();
+      assertEquals(results.size(), scoreboard.totalAt(i), "total of " + topics.get(i).getId());
+      assertEquals(correctCount, scoreboard.correctAt(i), "correct of " + topics.get(i).getId());
+
+      int slotTotal = 0;
+      for (int slot = 0; slot < TopicScoreboard.SLOTS; slot++) {
+        slotTotal += scoreboard.totalAt(i, slot);
+      }
+      assertEquals(results.size(), slotTotal);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "", "AB", "z" })
+  void malformedSelectionsAreWrong(String selected) {
+    Topic topic = Topic.builder().id("topic").name("Topic").build();
+    CourseAnswerKey answerKey = CourseAnswerKey.build(Course.builder().id("course").build(), List.of(topic),
+        List.of(new QuestionKey("q", "topic", "A", "EASY")));
+    TopicScoreboard scoreboard = new TopicScoreboard(answerKey);
+
+    scoreboard.record("q", selected);
+
+    assertEquals(1, scoreboard.totalAt(0));
+    assertEquals(0, scoreboard.correctAt(0));
+    assertEquals(0, scoreboard.getTotalCorrect());
+  }
+}
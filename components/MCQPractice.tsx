@@ -27,7 +27,7 @@ const MCQPractice: React.FC = () => {
     try {
       setLoading(true);
       const [allQuestions, allTopics] = await Promise.all([
-        topicId ? practiceQuestionsAPI.getByTopic(topicId) : practiceQuestionsAPI.getAll(),
+        topicId ? practiceQuestionsAPI.getByTopic(topicId) : practiceQuestionsAPI.getByType('MCQ'),
         topicsAPI.getAll(),
       ]);
       
@@ -1,12 +1,12 @@
 import React, { useState, useEffect } from 'react';
-import { practiceQuestionsAPI, topicsAPI, coursesAPI, PracticeQuestionResponse, PracticeQuestionCreateData, TopicResponse, CourseResponse } from '../services/api';
+import { practiceQuestionsAPI, topicsAPI, coursesAPI, PracticeQuestionResponse, PracticeQuestionSummary, PracticeQuestionCreateData, TopicResponse, CourseResponse } from '../services/api';
 
 interface Props {
   user: { id: string; name: string; role: string };
 }
 
 const PracticeRepositoryBank: React.FC<Props> = ({ user }) => {
-  const [questions, setQuestions] = useState<PracticeQuestionResponse[]>([]);
+  const [questions, setQuestions] = useState<PracticeQuestionSummary[]>([]);
   const [topics, setTopics] = useState<TopicResponse[]>([]);
   const [courses, setCourses] = useState<CourseResponse[]>([]);
   const [loading, setLoading] = useState(true);
@@ -92,7 +92,15 @@ const PracticeRepositoryBank: React.FC<Props> = ({ user }) => {
     setShowModal(true);
   };
 
-  const openEditModal = (question: PracticeQuestionResponse) => {
+  const openEditModal = async (summary: PracticeQuestionSummary) => {
+    // The list only has summaries; load the full question for editing
+    let question: PracticeQuestionResponse;
+    try {
+      question = await practiceQuestionsAPI.getById(summary.id);
+    } catch (error) {
+      console.error('Error loading question:', error);
+      return;
+    }
     setEditingQuestion(question);
     setFormData({
       title: question.title,
@@ -184,8 +192,7 @@ const PracticeRepositoryBank: React.FC<Props> = ({ user }) => {
 
   const filteredQuestions = questions.filter(q => {
     const matchesSearch = q.title.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      q.description?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      q.problemStatement?.toLowerCase().includes(searchTerm.toLowerCase());
+      q.description?.toLowerCase().includes(searchTerm.toLowerCase());
     const matchesDifficulty = !filterDifficulty || q.difficulty === filterDifficulty;
     const matchesType = !filterType || q.type === filterType;
     const matchesTopic = !filterTopic || q.topicId === filterTopic;
@@ -403,7 +410,7 @@ const PracticeRepositoryBank: React.FC<Props> = ({ user }) => {
                       </div>
                     </div>
                   </div>
-                  <p className="text-gray-600 line-clamp-2 mb-3">{question.description || question.problemStatement}</p>
+                  <p className="text-gray-600 line-clamp-2 mb-3">{question.description}</p>
                   <div className="flex items-center gap-2">
                     <span className={`px-3 py-1 rounded-full text-xs font-bold ${getDifficultyColor(question.difficulty)}`}>
                       {question.difficulty}
@@ -3,7 +3,7 @@ import React, { useContext, useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
 import { Radar, RadarChart, PolarGrid, PolarAngleAxis, ResponsiveContainer, XAxis, YAxis, CartesianGrid, Tooltip, AreaChart, Area } from 'recharts';
 import { COURSES, TOPICS } from '../services/mockData';
-import { coursesAPI, topicsAPI, assignmentsAPI, practiceQuestionsAPI, PracticeQuestionResponse } from '../services/api';
+import { coursesAPI, topicsAPI, assignmentsAPI, practiceQuestionsAPI } from '../services/api';
 import { AuthContext } from '../App';
 import { GoogleGenAI } from "@google/genai";
 import { Course, Topic } from '../types';
@@ -41,16 +41,16 @@ const StudentDashboard: React.FC = () => {
   const [roadmapError, setRoadmapError] = useState<string | null>(null);
   const [courses, setCourses] = useState<Course[]>(COURSES);
   const [topics, setTopics] = useState<Topic[]>(TOPICS);
-  const [mcqQuestions, setMcqQuestions] = useState<PracticeQuestionResponse[]>([]);
+  const [mcqCountsByTopic, setMcqCountsByTopic] = useState<Record<string, number>>({});
   
   // Fetch data from API on mount
   useEffect(() => {
     const fetchData = async () => {
       try {
-        const [coursesData, topicsData, questionsData] = await Promise.all([
+        const [coursesData, topicsData, mcqFacets] = await Promise.all([
           coursesAPI.getAll(),
           topicsAPI.getAll(),
-          practiceQuestionsAPI.getAll(),
+          practiceQuestionsAPI.getFacets({ type: 'MCQ' }),
         ]);
         
         setCourses(coursesData.map(c => ({
@@ -67,8 +67,8 @@ const StudentDashboard: React.FC = () => {
           courseId: t.courseId,
         })));
         
-        // Filter only MCQ questions
-        setMcqQuestions(questionsData.filter(q => q.type === 'MCQ'));
+        // MCQ question counts per topic
+        setMcqCountsByTopic(mcqFacets.topic || {});
       } catch (error) {
         console.error('Failed to fetch data:', error);
         // Keep mock data as fallback
@@ -608,7 +608,7 @@ const StudentDashboard: React.FC = () => {
         </div>
         <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-3 gap-8">
           {topics.map(topic => {
-            const topicMcqCount = mcqQuestions.filter(q => q.topicId === topic.id).length;
+            const topicMcqCount = mcqCountsByTopic[topic.id] || 0;
             const course = courses.find(c => c.id === topic.courseId);
             
             return (
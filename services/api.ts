@@ -319,6 +319,10 @@ export interface PracticeQuestionResponse {
   successCount: number;
 }
 
+// List view returned by getAll: no statement, hints, solution or test cases
+export type PracticeQuestionSummary = Omit<PracticeQuestionResponse,
+  'problemStatement' | 'hints' | 'solution' | 'solutionExplanation' | 'testCases' | 'updatedAt'>;
+
 export interface PracticeQuestionCreateData {
   title: string;
   description: string;
@@ -339,7 +343,7 @@ export interface PracticeQuestionCreateData {
 
 // Practice Questions API
 export const practiceQuestionsAPI = {
-  getAll: () => fetchAPI<PracticeQuestionResponse[]>('/practice-questions'),
+  getAll: () => fetchAPI<PracticeQuestionSummary[]>('/practice-questions'),
   
   getById: (id: string) => fetchAPI<PracticeQuestionResponse>(`/practice-questions/${id}`),
   
@@ -348,6 +352,8 @@ export const practiceQuestionsAPI = {
   getByCourse: (courseId: string) => fetchAPI<PracticeQuestionResponse[]>(`/practice-questions/course/${courseId}`),
   
   getByDifficulty: (difficulty: string) => fetchAPI<PracticeQuestionResponse[]>(`/practice-questions/difficulty/${difficulty}`),
+
+  getByType: (type: string) => fetchAPI<PracticeQuestionResponse[]>(`/practice-questions/type/${type}`),
   
   getByCreator: (createdBy: string) => fetchAPI<PracticeQuestionResponse[]>(`/practice-questions/creator/${createdBy}`),
   
@@ -380,6 +386,11 @@ export const practiceQuestionsAPI = {
     }),
   
   getCount: () => fetchAPI<{ count: number }>('/practice-questions/count'),
+
+  // Counts per facet (difficulty, type, topic, course, tag) -> value
+  getFacets: (filters: Record<string, string> = {}) =>
+    fetchAPI<Record<string, Record<string, number>>>(
+      `/practice-questions/facets?${new URLSearchParams(filters).toString()}`),
 };
 
 // MCQ Attempts API
@@ -425,6 +436,7 @@ export const mcqAttemptsAPI = {
 export interface ParsedQuestion {
   title: string;
   problemStatement: string;
+  options?: string[];
   difficulty: string;
   type: string;
   solution?: string;
@@ -432,24 +444,72 @@ export interface ParsedQuestion {
   active?: boolean;
 }
 
+export interface PdfImportJob {
+  id: string;
+  status: 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED';
+  topicId: string;
+  topicName: string;
+  type: string;
+  fileName?: string;
+  totalPages: number;
+  pagesDone: number;
+  questionsFound: number;
+  error?: string;
+}
+
+const readError = async (response: Response, fallback: string): Promise<string> => {
+  const text = await response.text();
+  try {
+    return JSON.parse(text).error || text || fallback;
+  } catch {
+    return text || fallback;
+  }
+};
+
 export const questionUploadAPI = {
-  parsePdf: async (file: File, topicId: string, type: string = 'MCQ'): Promise<ParsedQuestion[]> => {
+  // Parses in a background job on the server and polls until it finishes, so
+  // large PDFs do not hold the upload request open
+  parsePdf: async (
+    file: File,
+    topicId: string,
+    type: string = 'MCQ',
+    onProgress?: (job: PdfImportJob) => void,
+  ): Promise<ParsedQuestion[]> => {
     const formData = new FormData();
     formData.append('file', file);
     formData.append('topicId', topicId);
     formData.append('type', type);
     
-    const response = await fetch(`${API_BASE}/question-upload/parse-pdf`, {
+    const response = await fetch(`${API_BASE}/question-upload/jobs`, {
       method: 'POST',
       body: formData,
     });
     
     if (!response.ok) {
-      const error = await response.text();
-      throw new Error(error || 'Failed to parse PDF');
+      throw new Error(await readError(response, 'Failed to parse PDF'));
     }
     
-    const data = await response.json();
+    let job: PdfImportJob = await response.json();
+    while (job.status === 'QUEUED' || job.status === 'RUNNING') {
+      onProgress?.(job);
+      await new Promise(resolve => setTimeout(resolve, 1000));
+      const statusResponse = await fetch(`${API_BASE}/question-upload/jobs/${job.id}`);
+      if (!statusResponse.ok) {
+        throw new Error(await readError(statusResponse, 'Failed to parse PDF'));
+      }
+      job = await statusResponse.json();
+    }
+    onProgress?.(job);
+    if (job.status === 'FAILED') {
+      throw new Error(job.error || 'Failed to parse PDF');
+    }
+
+    const resultResponse = await fetch(`${API_BASE}/question-upload/jobs/${job.id}/result`);
+    if (!resultResponse.ok) {
+      throw new Error(await readError(resultResponse, 'Failed to parse PDF'));
+    }
+    
+    const data = await resultResponse.json();
     return data.questions || [];
   },
   